@@ -0,0 +1,46 @@
+package com.example.demo.config;
+
+import com.example.demo.engine.ai.AiStrategy;
+import com.example.demo.engine.ai.AiStrategyRegistry;
+import com.example.demo.engine.ai.HuntTargetStrategy;
+import com.example.demo.engine.ai.MonteCarloStrategy;
+import com.example.demo.engine.ai.RandomShotStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AiConfig {
+    // Отдельный пул, чтобы сэмплирование "эксперта" не занимало общий ForkJoinPool.commonPool()
+    @Bean(destroyMethod = "shutdownNow")
+    public ForkJoinPool aiSamplingPool(@Value("${seabattle.ai.expert.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public RandomShotStrategy randomShotStrategy() {
+        return new RandomShotStrategy();
+    }
+
+    @Bean
+    public HuntTargetStrategy huntTargetStrategy() {
+        return new HuntTargetStrategy();
+    }
+
+    @Bean
+    public MonteCarloStrategy monteCarloStrategy(ForkJoinPool aiSamplingPool,
+                                                 @Value("${seabattle.ai.expert.budget-ms:20}") long budgetMs,
+                                                 @Value("${seabattle.ai.expert.sample-target:20000}") int sampleTarget) {
+        return new MonteCarloStrategy(aiSamplingPool, TimeUnit.MILLISECONDS.toNanos(budgetMs), sampleTarget);
+    }
+
+    // Все стратегии-бины по уровню сложности
+    @Bean
+    public AiStrategyRegistry aiStrategyRegistry(List<AiStrategy> strategies) {
+        return new AiStrategyRegistry(strategies);
+    }
+}
@@ -1,23 +1,94 @@
 package com.example.demo.config;  // Соответствует расположению
 
-import com.example.demo.model.Move;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.model.User;
+import com.example.demo.service.GameState;
+import com.example.demo.service.MoveWriteBehind;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class CacheConfig {
+    // Игры ограничены оценкой занимаемой памяти, а не числом: вес игры растёт с её ходами
     @Bean
-    public Cache<Long, List<Move>> movesCache() {
+    public Cache<Long, GameState> gameStateCache(
+            MoveWriteBehind moveWriteBehind,
+            @Value("${seabattle.cache.game-state.max-weight-bytes:67108864}") long maxWeightBytes,
+            @Value("${seabattle.cache.game-state.expire-after-write:24h}") Duration expireAfterWrite,
+            @Value("${seabattle.cache.game-state.expire-after-access:5h}") Duration expireAfterAccess) {
         return Caffeine.newBuilder()
-                .maximumSize(100)             // Максимум 1000 игр в кэше
-                .expireAfterWrite(24, TimeUnit.HOURS) // Храним ходы 24 часа
-                .expireAfterAccess(5, TimeUnit.HOURS) // Удаляем если не было обращений 6 часов
+                .maximumWeight(maxWeightBytes)
+                .weigher((Long gameId, GameState state) -> state.estimatedBytes())
+                .expireAfterWrite(expireAfterWrite)
+                .expireAfterAccess(expireAfterAccess)
                 .recordStats()                 // Для мониторинга
+                // вытесненная игра могла оставить ходы в очереди записи - сбрасываем её
+                .removalListener((Long gameId, GameState state, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        moveWriteBehind.requestFlush();
+                    }
+                })
+                .build();
+    }
+
+    // Попадания, промахи, вытеснения и размер кэша игр в Micrometer (cache.* с тегом cache=gameState)
+    @Bean
+    public CaffeineCacheMetrics<Long, GameState, Cache<Long, GameState>> gameStateCacheMetrics(
+            Cache<Long, GameState> gameStateCache, MeterRegistry registry) {
+        CaffeineCacheMetrics<Long, GameState, Cache<Long, GameState>> metrics =
+                new CaffeineCacheMetrics<>(gameStateCache, "gameState", List.of());
+        metrics.bindTo(registry);
+        Gauge.builder("seabattle.cache.game-state.estimated.bytes", gameStateCache, GameCacheMetrics::weightedSize)
+                .description("Оценка памяти, занятой кэшем игр")
+                .baseUnit("bytes")
+                .register(registry);
+        return metrics;
+    }
+
+    // Что ИИ знает о поле игрока: маски выстрелов и попаданий, ~100 байт на игру. Без явного размера
+    // вмещает столько игр, сколько кэш игр при минимальном весе игры, - наблюдение не вытесняется раньше игры
+    @Bean
+    public Cache<Long, Observation> aiObservationCache(
+            @Value("${seabattle.cache.ai-observation.max-size:0}") long maxSize,
+            @Value("${seabattle.cache.game-state.max-weight-bytes:67108864}") long gameStateMaxWeightBytes,
+            @Value("${seabattle.cache.ai-observation.expire-after-access:5h}") Duration expireAfterAccess) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize > 0 ? maxSize : gameStateMaxWeightBytes / GameState.BASE_BYTES)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    // Пользователи по id и по имени: записи не меняются, сбрасываются только при создании
+    @Bean
+    public Cache<Long, User> userByIdCache(
+            @Value("${seabattle.cache.users.max-size:10000}") long maxSize,
+            @Value("${seabattle.cache.users.expire-after-access:1h}") Duration expireAfterAccess) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public Cache<String, User> userByNameCache(
+            @Value("${seabattle.cache.users.max-size:10000}") long maxSize,
+            @Value("${seabattle.cache.users.expire-after-access:1h}") Duration expireAfterAccess) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
                 .build();
     }
 }
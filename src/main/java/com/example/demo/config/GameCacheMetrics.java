@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AiFleetPool;
+import com.example.demo.service.GameState;
+import com.example.demo.service.MoveJournal;
+import com.example.demo.service.MoveWriteBehind;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Эндпоинт /actuator/gamecache: сводка по кэшу игр для подбора размера кучи
+@Component
+@Endpoint(id = "gamecache")
+@RequiredArgsConstructor
+public class GameCacheMetrics {
+    private final Cache<Long, GameState> gameStateCache;
+    private final MoveWriteBehind moveWriteBehind;
+    private final MoveJournal moveJournal;
+    private final AiFleetPool aiFleetPool;
+
+    @ReadOperation
+    public Map<String, Object> summary() {
+        CacheStats stats = gameStateCache.stats();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("games", gameStateCache.estimatedSize());
+        summary.put("estimatedBytes", weightedSize(gameStateCache));
+        summary.put("maxBytes", gameStateCache.policy().eviction().map(e -> e.getMaximum()).orElse(-1L));
+        summary.put("hitRate", stats.hitRate());
+        summary.put("hits", stats.hitCount());
+        summary.put("misses", stats.missCount());
+        summary.put("evictions", stats.evictionCount());
+        summary.put("evictedBytes", stats.evictionWeight());
+        summary.put("movesPendingWrite", moveWriteBehind.pending());
+        summary.put("movesUnjournaled", moveJournal.unjournaled());
+        summary.put("movesDropped", moveWriteBehind.dropped());
+        summary.put("aiFleetPoolSize", aiFleetPool.size());
+        summary.put("aiFleetPoolHits", aiFleetPool.hits());
+        summary.put("aiFleetPoolMisses", aiFleetPool.misses());
+        return summary;
+    }
+
+    static double weightedSize(Cache<Long, GameState> cache) {
+        return cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+// Кэш второго уровня Hibernate на Caffeine через JCache. Каждый регион (users, games, moves, ...)
+// создаётся из seabattle.cache.l2.regions.<имя>; регион без настроек - ошибка при старте.
+@Configuration
+@EnableConfigurationProperties(L2CacheConfig.L2CacheProperties.class)
+public class L2CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(L2CacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(provider.getDefaultURI(), L2CacheConfig.class.getClassLoader());
+        properties.regions().forEach((name, region) -> {
+            if (cacheManager.getCache(name) != null) {
+                cacheManager.destroyCache(name);    // менеджер мог остаться от предыдущего контекста
+            }
+            cacheManager.createCache(name, region.toConfiguration());
+        });
+        return cacheManager;
+    }
+
+    // Hibernate берёт готовый менеджер с нашими регионами вместо своего
+    @Bean
+    public HibernatePropertiesCustomizer l2CacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @ConfigurationProperties(prefix = "seabattle.cache.l2")
+    public record L2CacheProperties(Map<String, Region> regions) {
+        public L2CacheProperties {
+            regions = regions != null ? regions : Map.of();
+        }
+
+        // expireAfterWrite не задан - записи не устаревают (нужно для меток обновления таблиц)
+        public record Region(long maxSize, Duration expireAfterWrite) {
+            CaffeineConfiguration<Object, Object> toConfiguration() {
+                CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+                configuration.setMaximumSize(OptionalLong.of(maxSize));
+                if (expireAfterWrite != null) {
+                    configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+                }
+                configuration.setStatisticsEnabled(true);
+                return configuration;
+            }
+        }
+    }
+}
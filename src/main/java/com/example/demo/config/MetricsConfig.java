@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AiFleetPool;
+import com.example.demo.service.MoveJournal;
+import com.example.demo.service.MoveWriteBehind;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Счётчики сервисов игры в Micrometer; метрики кэшей - в CacheConfig
+@Configuration
+public class MetricsConfig {
+
+    // Запас расстановок ИИ: взято из запаса, сгенерировано на месте и текущий размер
+    @Bean
+    public MeterBinder aiFleetPoolMetrics(AiFleetPool aiFleetPool) {
+        return registry -> {
+            FunctionCounter.builder("seabattle.ai.fleet.pool.hits", aiFleetPool, AiFleetPool::hits)
+                    .description("Расстановки ИИ, взятые из запаса")
+                    .register(registry);
+            FunctionCounter.builder("seabattle.ai.fleet.pool.misses", aiFleetPool, AiFleetPool::misses)
+                    .description("Расстановки ИИ, сгенерированные при пустом запасе")
+                    .register(registry);
+            Gauge.builder("seabattle.ai.fleet.pool.size", aiFleetPool, AiFleetPool::size)
+                    .description("Готовые расстановки ИИ в запасе")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder moveJournalMetrics(MoveJournal moveJournal) {
+        return registry -> FunctionCounter.builder("seabattle.moves.journal.unjournaled", moveJournal, MoveJournal::unjournaled)
+                .description("Ходы, не попавшие в журнал из-за его переполнения")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder moveWriteBehindMetrics(MoveWriteBehind moveWriteBehind) {
+        return registry -> FunctionCounter.builder("seabattle.moves.write-behind.dropped", moveWriteBehind, MoveWriteBehind::dropped)
+                .description("Ходы, отброшенные без записи в БД из-за постоянной ошибки")
+                .register(registry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.controller;
 
+import com.example.demo.engine.BitBoard;
 import com.example.demo.exception.ActiveGameExistsException;
 import com.example.demo.exception.GameFullException;
 import com.example.demo.exception.GameNotFoundException;
@@ -11,14 +12,14 @@ import com.example.demo.model.User;
 import com.example.demo.model.dto.*;
 import com.example.demo.repository.FieldRepository;
 import com.example.demo.repository.GameSessionRepository;
-import com.example.demo.repository.MoveRepository;
-import com.example.demo.repository.UserRepository;
 import com.example.demo.service.GameLogicService;
 import com.example.demo.service.GameService;
+import com.example.demo.service.UserCacheService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.example.demo.model.dto.MoveResponse;
@@ -35,8 +36,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GameController {
     private final GameService gameService;
-    private final MoveRepository moveRepository;
-    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
     private final GameSessionRepository gameRepository;
     private final FieldRepository fieldRepository;
 
@@ -47,15 +47,11 @@ public class GameController {
         User creator = gameService.getPlayerById(request.getCreatorId());
 
         // Проверка на незавершенные игры
-        List<GameSession> activeGames = gameService.getUserGameHistory(creator).stream()
-                .filter(g -> g.getStatus() != GameSession.GameStatus.FINISHED)
-                .toList();
-
-        if (!activeGames.isEmpty()) {
+        if (gameService.hasActiveGame(creator)) {
             throw new ActiveGameExistsException("У вас есть незавершенные игры. Завершите их перед созданием новой.");
         }
 
-        GameSession game = gameService.createGame(creator, request.getGameType());
+        GameSession game = gameService.createGame(creator, request.getGameType(), request.getDifficulty());
         return ResponseEntity.status(HttpStatus.CREATED).body(game);
     }
 
@@ -79,11 +75,7 @@ public class GameController {
         }
 
         // Проверка на незавершенные игры
-        List<GameSession> activeGames = gameService.getUserGameHistory(player).stream()
-                .filter(g -> g.getStatus() != GameSession.GameStatus.FINISHED)
-                .toList();
-
-        if (!activeGames.isEmpty()) {
+        if (gameService.hasActiveGame(player)) {
             String errorMessage = "У вас есть незавершенные игры. Завершите их перед созданием новой.";
             log.warn(errorMessage);
             throw new IllegalStateException(errorMessage);
@@ -102,14 +94,15 @@ public class GameController {
     }
 
     @GetMapping("/user/{userId}/history")
-    public ResponseEntity<List<GameStatus>> getUserGameHistory(@PathVariable Long userId) {
-        User user = userRepository.findById(userId)
+    public ResponseEntity<GameHistoryPage> getUserGameHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + GameService.HISTORY_DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) GameSession.GameStatus status,
+            @RequestParam(required = false) GameSession.GameType type) {
+        userCacheService.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        List<GameSession> games = gameService.getUserGameHistory(user);
-        List<GameStatus> dtos = games.stream()
-                .map(GameStatus::new)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(gameService.getUserGameHistory(userId, cursor, size, status, type));
     }
 
     @PostMapping("/{gameId}/place-ships/{playerId}")
@@ -117,15 +110,38 @@ public class GameController {
             @PathVariable Long gameId,
             @PathVariable Long playerId,
             @Valid @RequestBody ShipPlace request) {
+        User player = userCacheService.findById(playerId)
+                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+
+        GameSession game = gameService.getGameById(gameId)
+                .orElseThrow(() -> new GameNotFoundException(gameId));
+        checkPlacementAllowed(game, player);
 
-        User player = userRepository.findById(playerId)
+        gameService.saveShipPlacement(game, player, request.getField());
+        return ResponseEntity.ok().build();
+    }
+
+    // Компактная расстановка: 13 байт маски кораблей (бит y * 10 + x), Content-Type: application/octet-stream
+    @PostMapping(value = "/{gameId}/place-ships/{playerId}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> placeShipsCompact(
+            @PathVariable Long gameId,
+            @PathVariable Long playerId,
+            @RequestBody byte[] shipMask) {
+        User player = userCacheService.findById(playerId)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
         GameSession game = gameService.getGameById(gameId)
                 .orElseThrow(() -> new GameNotFoundException(gameId));
+        checkPlacementAllowed(game, player);
 
+        gameService.saveShipPlacement(game, player, BitBoard.fromShipMask(shipMask));
+        return ResponseEntity.ok().build();
+    }
+
+    // Общие проверки расстановки для обоих форматов запроса
+    private void checkPlacementAllowed(GameSession game, User player) {
         if (!game.getPlayer1().equals(player) && !game.getPlayer2().equals(player)) {
-            String errorMessage = "Игрок " + playerId + " не участвует в игре " + gameId;
+            String errorMessage = "Игрок " + player.getId() + " не участвует в игре " + game.getId();
             log.warn(errorMessage);
             throw new IllegalStateException(errorMessage);
         }
@@ -134,9 +150,6 @@ public class GameController {
         if (existingField.isPresent()) {
             throw new ShipPlacementException("Расстановка кораблей уже выполнена и не может быть изменена");
         }
-
-        gameService.saveShipPlacement(game, player, request.getField());
-        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/{gameId}/moves")
@@ -148,7 +161,8 @@ public class GameController {
             throw new IllegalStateException("Ходы можно просматривать только для завершенных игр");
         }
 
-        List<Move> moves = moveRepository.findByGameOrderByCreatedAtAsc(game);
+        // ходы завершённой игры не меняются: список и сами ходы берутся из кэша второго уровня
+        List<Move> moves = game.getMoves();
         List<MoveResponse> response = moves.stream()
                 .map(MoveResponse::fromEntity)
                 .collect(Collectors.toList());
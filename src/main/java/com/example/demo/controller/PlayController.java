@@ -1,6 +1,5 @@
 package com.example.demo.controller;
 
-import com.example.demo.exception.GameNotFoundException;
 import com.example.demo.model.GameSession;
 import com.example.demo.model.Move;
 import com.example.demo.model.User;
@@ -10,6 +9,8 @@ import com.example.demo.model.dto.MoveResultResponse;
 import com.example.demo.service.AiService;
 import com.example.demo.service.GameLogicService;
 import com.example.demo.service.GameService;
+import com.example.demo.service.GameState;
+import com.example.demo.service.UserCacheService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,11 +30,12 @@ public class PlayController {
             @Valid @RequestBody MakeMoveRequest request) {
         log.info("Сделан ход игроком {} в игре {} по координатам ({},{})",
                 request.getPlayerId(), gameId, request.getX(), request.getY());
-        GameSession game = gameService.getGameById(gameId)
-                .orElseThrow(() -> new GameNotFoundException(gameId));
-        User player = gameService.getPlayerById(request.getPlayerId());
+        // состояние партии из кэша: игра и игроки без запросов к БД
+        GameState state = gameService.getGameState(gameId);
+        GameSession game = state.getGame();
+        User player = state.findPlayer(request.getPlayerId()).orElse(null);
 
-        if ("AI Player".equals(player.getName())) {
+        if (player != null && UserCacheService.AI_PLAYER_NAME.equals(player.getName())) {
             throw new IllegalStateException("Нельзя делать ходы за AI");
         }
 
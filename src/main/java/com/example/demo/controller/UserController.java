@@ -5,6 +5,7 @@ import com.example.demo.exception.UserNotFoundException;
 import com.example.demo.model.dto.UserDto; // Добавьте этот импорт
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.service.UserCacheService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +22,7 @@ import java.time.LocalDateTime;
 @Slf4j
 public class UserController {
     private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
 
     @PostMapping
     public ResponseEntity<User> createUser(@Valid @RequestBody UserDto userDto) {
@@ -32,8 +34,9 @@ public class UserController {
         user.setName(userDto.getName());
         user.setCreatedAt(LocalDateTime.now());
 
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(userRepository.save(user));
+        User saved = userRepository.save(user);
+        userCacheService.invalidate(saved);
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
     @GetMapping("/{id}")
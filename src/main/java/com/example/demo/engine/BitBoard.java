@@ -0,0 +1,233 @@
+package com.example.demo.engine;
+
+import com.example.demo.model.Move;
+
+import java.util.List;
+
+// Поле 10x10 в виде битовых масок: клетка (x, y) -> бит с индексом y * 10 + x.
+// Первые 64 клетки лежат в младшем слове (*Lo), оставшиеся 36 - в старшем (*Hi).
+public final class BitBoard {
+    public static final int SIZE = 10;
+    public static final int CELLS = SIZE * SIZE;
+    public static final long HI_MASK = (1L << (CELLS - 64)) - 1;
+    public static final int MASK_BYTES = (CELLS + 7) / 8;   // 13 байт на 100 клеток
+
+    private long shipsLo;   // клетки с кораблями
+    private long shipsHi;
+    private long shotsLo;   // клетки, по которым уже стреляли
+    private long shotsHi;
+    private ShipIndex shipIndex;   // строится один раз при первом обращении
+
+    public BitBoard() {
+    }
+
+    public BitBoard(long shipsLo, long shipsHi, long shotsLo, long shotsHi) {
+        this.shipsLo = shipsLo;
+        this.shipsHi = shipsHi & HI_MASK;
+        this.shotsLo = shotsLo;
+        this.shotsHi = shotsHi & HI_MASK;
+    }
+
+    // Разбор строкового представления поля: '0' - пусто, '1' - корабль, '2' - подбитая палуба
+    public static BitBoard fromString(String fieldString) {
+        if (fieldString == null || fieldString.length() != CELLS) {
+            throw new IllegalArgumentException("Field string must be exactly 100 characters");
+        }
+        BitBoard board = new BitBoard();
+        for (int i = 0; i < CELLS; i++) {
+            switch (fieldString.charAt(i)) {
+                case '0' -> { }
+                case '1' -> board.setShip(i);
+                case '2' -> {
+                    board.setShip(i);
+                    board.setShot(i);
+                }
+                default -> throw new IllegalArgumentException("Недопустимый символ поля в позиции " + i);
+            }
+        }
+        return board;
+    }
+
+    // Поле из запроса расстановки: строки "0"/"1", уже проверенные FleetValidator
+    public static BitBoard fromRows(List<List<String>> field) {
+        BitBoard board = new BitBoard();
+        for (int y = 0; y < SIZE; y++) {
+            List<String> row = field.get(y);
+            for (int x = 0; x < SIZE; x++) {
+                if ("1".equals(row.get(x))) {
+                    board.setShip(index(x, y));
+                }
+            }
+        }
+        return board;
+    }
+
+    // Компактная маска кораблей: бит клетки i лежит в байте i / 8 на позиции i % 8
+    public static BitBoard fromShipMask(byte[] mask) {
+        if (mask == null || mask.length != MASK_BYTES) {
+            throw new IllegalArgumentException("Маска поля должна занимать ровно " + MASK_BYTES + " байт");
+        }
+        long lo = 0;
+        long hi = 0;
+        for (int i = 0; i < 8; i++) {
+            lo |= (mask[i] & 0xFFL) << (i * 8);
+        }
+        for (int i = 8; i < MASK_BYTES; i++) {
+            hi |= (mask[i] & 0xFFL) << ((i - 8) * 8);
+        }
+        if ((hi & ~HI_MASK) != 0) {
+            throw new IllegalArgumentException("Маска поля содержит биты за пределами 100 клеток");
+        }
+        return new BitBoard(lo, hi, 0, 0);
+    }
+
+    public byte[] toShipMask() {
+        byte[] mask = new byte[MASK_BYTES];
+        for (int i = 0; i < 8; i++) {
+            mask[i] = (byte) (shipsLo >>> (i * 8));
+        }
+        for (int i = 8; i < MASK_BYTES; i++) {
+            mask[i] = (byte) (shipsHi >>> ((i - 8) * 8));
+        }
+        return mask;
+    }
+
+    // Обратное преобразование в строку из 100 символов '0'/'1'/'2'
+    public String toFieldString() {
+        char[] chars = new char[CELLS];
+        for (int i = 0; i < CELLS; i++) {
+            chars[i] = (char) ('0' + cell(i));
+        }
+        return new String(chars);
+    }
+
+    // Только расстановка: подбитые палубы записываются как целые '1'
+    public String toPlacementString() {
+        return new BitBoard(shipsLo, shipsHi, 0, 0).toFieldString();
+    }
+
+    public static int index(int x, int y) {
+        return y * SIZE + x;
+    }
+
+    public static boolean test(long lo, long hi, int index) {
+        return index < 64 ? (lo >>> index & 1L) != 0 : (hi >>> (index - 64) & 1L) != 0;
+    }
+
+    // Бит клетки в младшем или старшем слове маски
+    public static long bitLo(int index) {
+        return index < 64 ? 1L << index : 0;
+    }
+
+    public static long bitHi(int index) {
+        return index < 64 ? 0 : 1L << (index - 64);
+    }
+
+    // Индекс n-й по счёту (с нуля) установленной клетки маски, -1 если столько клеток нет
+    public static int selectCell(long lo, long hi, int n) {
+        int lowCount = Long.bitCount(lo);
+        long bits = n < lowCount ? lo : hi & HI_MASK;
+        int offset = n < lowCount ? 0 : 64;
+        int skip = n < lowCount ? n : n - lowCount;
+        for (int i = 0; i < skip && bits != 0; i++) {
+            bits &= bits - 1;
+        }
+        return bits == 0 ? -1 : offset + Long.numberOfTrailingZeros(bits);
+    }
+
+    public boolean hasShip(int x, int y) {
+        return test(shipsLo, shipsHi, index(x, y));
+    }
+
+    public boolean isShot(int x, int y) {
+        return test(shotsLo, shotsHi, index(x, y));
+    }
+
+    // Значение клетки в старом формате: 0 - пусто, 1 - корабль, 2 - подбитая палуба
+    public int cell(int x, int y) {
+        return cell(index(x, y));
+    }
+
+    private int cell(int index) {
+        if (!test(shipsLo, shipsHi, index)) {
+            return 0;
+        }
+        return test(shotsLo, shotsHi, index) ? 2 : 1;
+    }
+
+    // Выстрел по клетке: отмечает её и возвращает результат
+    public Move.MoveResult fire(int x, int y) {
+        int index = index(x, y);
+        if (!test(shipsLo, shipsHi, index)) {
+            setShot(index);
+            return Move.MoveResult.MISS;
+        }
+        ShipIndex ships = getShipIndex();   // индекс строится до отметки выстрела
+        if (!test(shotsLo, shotsHi, index)) {
+            setShot(index);
+            ships.hit(index);
+        }
+        return ships.isSunk(index) ? Move.MoveResult.SUNK : Move.MoveResult.HIT;
+    }
+
+    public boolean isShipSunk(int x, int y) {
+        return getShipIndex().isSunk(index(x, y));
+    }
+
+    public ShipIndex getShipIndex() {
+        if (shipIndex == null) {
+            shipIndex = ShipIndex.build(this);
+        }
+        return shipIndex;
+    }
+
+    // Игра окончена, когда счётчик живых кораблей дошёл до нуля
+    public boolean allShipsSunk() {
+        if (shipIndex != null) {
+            return shipIndex.shipsAlive() == 0;
+        }
+        return (shipsLo & ~shotsLo) == 0 && (shipsHi & ~shotsHi) == 0;
+    }
+
+    public void setShip(int x, int y) {
+        setShip(index(x, y));
+    }
+
+    private void setShip(int index) {
+        shipIndex = null;
+        if (index < 64) {
+            shipsLo |= 1L << index;
+        } else {
+            shipsHi |= 1L << (index - 64);
+        }
+    }
+
+    private void setShot(int index) {
+        if (index < 64) {
+            shotsLo |= 1L << index;
+        } else {
+            shotsHi |= 1L << (index - 64);
+        }
+    }
+
+    public long getShipsLo() {
+        return shipsLo;
+    }
+
+    public long getShipsHi() {
+        return shipsHi;
+    }
+
+    public long getShotsLo() {
+        return shotsLo;
+    }
+
+    public long getShotsHi() {
+        return shotsHi;
+    }
+
+    @Override
+    public String toString() {
+        return "BitBoard{" + toFieldString() + '}';
+    }
+}
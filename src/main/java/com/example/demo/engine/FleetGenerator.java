@@ -0,0 +1,99 @@
+package com.example.demo.engine;
+
+import java.util.random.RandomGenerator;
+
+// Случайная расстановка флота по таблице допустимых положений: каждый корабль
+// выбирается равновероятно из положений, совместимых с уже поставленными, за ограниченное время -
+// несколько проб наугад, затем точный выбор по списку совместимых.
+public final class FleetGenerator {
+    // Большие корабли ставятся первыми, пока на поле больше места
+    public static final int[] FLEET = {4, 3, 3, 2, 2, 2, 1, 1, 1, 1};
+    private static final int MAX_ATTEMPTS = 1000;
+    // Сколько раз пробуем случайное положение из всей таблицы, прежде чем считать совместимые
+    private static final int QUICK_PICKS = 16;
+
+    private FleetGenerator() {
+    }
+
+    public static BitBoard generate(RandomGenerator random) {
+        return generate(random, 0, 0);
+    }
+
+    // Расстановка, не занимающая клетки из маски blocked
+    public static BitBoard generate(RandomGenerator random, long blockedLo, long blockedHi) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            BitBoard board = tryGenerate(random, blockedLo, blockedHi);
+            if (board != null) {
+                return board;
+            }
+        }
+        throw new IllegalStateException("Не удалось расставить флот за " + MAX_ATTEMPTS + " попыток");
+    }
+
+    // Одна попытка; null, если для очередного корабля не осталось места
+    private static BitBoard tryGenerate(RandomGenerator random, long blockedLo, long blockedHi) {
+        long[] layout = new long[2];
+        if (!sample(random, blockedLo, blockedHi, 0, 0, FLEET, FLEET.length, layout)) {
+            return null;
+        }
+        return new BitBoard(layout[0], layout[1], 0, 0);
+    }
+
+    // Одна попытка расставить первые count кораблей из fleet вне маски blocked без выделения памяти;
+    // корабль не может целиком лежать на клетках hits. Маска палуб записывается в layout[0]
+    // (младшее слово) и layout[1] (старшее слово).
+    public static boolean sample(RandomGenerator random, long blockedLo, long blockedHi, long hitsLo, long hitsHi,
+                                 int[] fleet, int count, long[] layout) {
+        long shipsLo = 0;
+        long shipsHi = 0;
+        for (int ship = 0; ship < count; ship++) {
+            ShipPlacements placements = ShipPlacements.of(fleet[ship]);
+            int chosen = quickPick(placements, random, blockedLo, blockedHi, hitsLo, hitsHi);
+            if (chosen < 0) {
+                chosen = exactPick(placements, random, blockedLo, blockedHi, hitsLo, hitsHi);
+                if (chosen < 0) {
+                    return false;
+                }
+            }
+            shipsLo |= placements.cellsLo(chosen);
+            shipsHi |= placements.cellsHi(chosen);
+            blockedLo |= placements.haloLo(chosen);
+            blockedHi |= placements.haloHi(chosen);
+        }
+        layout[0] = shipsLo;
+        layout[1] = shipsHi;
+        return true;
+    }
+
+    // Выбор наугад из всей таблицы с отбраковкой: при успехе положение равновероятно среди совместимых
+    private static int quickPick(ShipPlacements placements, RandomGenerator random,
+                                 long blockedLo, long blockedHi, long hitsLo, long hitsHi) {
+        for (int i = 0; i < QUICK_PICKS; i++) {
+            int candidate = random.nextInt(placements.size());
+            if (placements.fits(candidate, blockedLo, blockedHi, hitsLo, hitsHi)) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    // Точный выбор: подсчёт совместимых положений и выбор случайного из них
+    private static int exactPick(ShipPlacements placements, RandomGenerator random,
+                                 long blockedLo, long blockedHi, long hitsLo, long hitsHi) {
+        int count = 0;
+        for (int i = 0; i < placements.size(); i++) {
+            if (placements.fits(i, blockedLo, blockedHi, hitsLo, hitsHi)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return -1;
+        }
+        int pick = random.nextInt(count);
+        for (int i = 0; ; i++) {
+            if (placements.fits(i, blockedLo, blockedHi, hitsLo, hitsHi) && pick-- == 0) {
+                return i;
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.engine;
+
+import java.util.List;
+
+// Проверка расстановки флота (1x4, 2x3, 3x2, 4x1) за один проход по битовой маске без выделения памяти
+public final class FleetValidator {
+    public static final int MAX_SHIP_LENGTH = 4;
+    // Счётчики кораблей упакованы по байту на длину: 4 однопалубных, 3 двух-, 2 трёх- и 1 четырёхпалубный
+    private static final int EXPECTED_FLEET = 4 | 3 << 8 | 2 << 16 | 1 << 24;
+
+    private FleetValidator() {
+    }
+
+    // Проверка поля из запроса: размер, значения клеток, затем сам флот
+    public static PlacementCheck validate(List<List<String>> field) {
+        if (field == null || field.size() != BitBoard.SIZE) {
+            return PlacementCheck.WRONG_SIZE;
+        }
+        long lo = 0;
+        long hi = 0;
+        for (int y = 0; y < BitBoard.SIZE; y++) {
+            List<String> row = field.get(y);
+            if (row == null || row.size() != BitBoard.SIZE) {
+                return PlacementCheck.WRONG_SIZE;
+            }
+            for (int x = 0; x < BitBoard.SIZE; x++) {
+                String cell = row.get(x);
+                if ("1".equals(cell)) {
+                    int index = BitBoard.index(x, y);
+                    if (index < 64) {
+                        lo |= 1L << index;
+                    } else {
+                        hi |= 1L << (index - 64);
+                    }
+                } else if (!"0".equals(cell)) {
+                    return PlacementCheck.INVALID_CELL;
+                }
+            }
+        }
+        return validate(lo, hi);
+    }
+
+    public static PlacementCheck validate(BitBoard board) {
+        return validate(board.getShipsLo(), board.getShipsHi());
+    }
+
+    // Любой изгиб корабля или касание двух кораблей даёт пару палуб по диагонали,
+    // поэтому достаточно смотреть на соседей сверху, а длину мерить от носа корабля
+    public static PlacementCheck validate(long lo, long hi) {
+        if ((hi & ~BitBoard.HI_MASK) != 0) {
+            return PlacementCheck.WRONG_SIZE;
+        }
+        int fleet = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (!BitBoard.test(lo, hi, cell)) {
+                continue;
+            }
+            int x = cell % BitBoard.SIZE;
+            int y = cell / BitBoard.SIZE;
+            boolean left = x > 0 && BitBoard.test(lo, hi, cell - 1);
+            boolean up = y > 0 && BitBoard.test(lo, hi, cell - BitBoard.SIZE);
+            boolean upLeft = x > 0 && y > 0 && BitBoard.test(lo, hi, cell - BitBoard.SIZE - 1);
+            boolean upRight = x < BitBoard.SIZE - 1 && y > 0 && BitBoard.test(lo, hi, cell - BitBoard.SIZE + 1);
+
+            if (upLeft || upRight) {
+                return up || left ? PlacementCheck.SHIP_NOT_STRAIGHT : PlacementCheck.SHIPS_TOUCHING;
+            }
+            if (up && left) {
+                return PlacementCheck.SHIP_NOT_STRAIGHT;
+            }
+            if (up || left) {
+                continue;   // палуба уже посчитана вместе с носом корабля
+            }
+
+            int length = 1;
+            if (x < BitBoard.SIZE - 1 && BitBoard.test(lo, hi, cell + 1)) {
+                while (x + length < BitBoard.SIZE && BitBoard.test(lo, hi, cell + length)) {
+                    length++;
+                }
+            } else {
+                while (y + length < BitBoard.SIZE && BitBoard.test(lo, hi, cell + length * BitBoard.SIZE)) {
+                    length++;
+                }
+            }
+            if (length > MAX_SHIP_LENGTH) {
+                return PlacementCheck.WRONG_FLEET;
+            }
+            fleet += 1 << ((length - 1) * 8);
+        }
+        return fleet == EXPECTED_FLEET ? PlacementCheck.VALID : PlacementCheck.WRONG_FLEET;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.engine;
+
+// Результат проверки расстановки флота с причиной отказа
+public enum PlacementCheck {
+    VALID(null),
+    WRONG_SIZE("Неверная расстановка кораблей: поле должно быть 10x10"),
+    INVALID_CELL("Неверная расстановка кораблей: клетка должна быть \"0\" или \"1\""),
+    SHIP_NOT_STRAIGHT("Неверная расстановка кораблей: корабль должен быть прямой линией"),
+    SHIPS_TOUCHING("Корабли должны находиться на расстоянии минимум 1 клетки друг от друга"),
+    WRONG_FLEET("Неверная расстановка кораблей: неверное количество или размер кораблей");
+
+    private final String message;
+
+    PlacementCheck(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.engine;
+
+import java.util.Arrays;
+
+// Индекс кораблей поля: номер корабля для каждой клетки и счётчики оставшихся палуб.
+// Строится один раз по маскам поля, после чего попадание - это одно уменьшение счётчика.
+public final class ShipIndex {
+    private final byte[] shipAt = new byte[BitBoard.CELLS];   // 0 - пусто, иначе номер корабля (с 1)
+    private final byte[] lengths;      // длина корабля по номеру
+    private final byte[] decksLeft;    // неподбитые палубы по номеру
+    private int shipsAlive;
+
+    private ShipIndex(long shipsLo, long shipsHi, long shotsLo, long shotsHi) {
+        byte[] lengths = new byte[BitBoard.CELLS + 1];
+        byte[] decksLeft = new byte[BitBoard.CELLS + 1];
+        int[] stack = new int[BitBoard.CELLS];
+        int ships = 0;
+
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            if (shipAt[cell] != 0 || !BitBoard.test(shipsLo, shipsHi, cell)) {
+                continue;
+            }
+            // Обход палуб нового корабля по горизонтали и вертикали
+            byte id = (byte) ++ships;
+            int top = 0;
+            stack[top++] = cell;
+            shipAt[cell] = id;
+            while (top > 0) {
+                int current = stack[--top];
+                lengths[id]++;
+                if (!BitBoard.test(shotsLo, shotsHi, current)) {
+                    decksLeft[id]++;
+                }
+                int x = current % BitBoard.SIZE;
+                int y = current / BitBoard.SIZE;
+                if (x > 0) top = visit(current - 1, id, shipsLo, shipsHi, stack, top);
+                if (x < BitBoard.SIZE - 1) top = visit(current + 1, id, shipsLo, shipsHi, stack, top);
+                if (y > 0) top = visit(current - BitBoard.SIZE, id, shipsLo, shipsHi, stack, top);
+                if (y < BitBoard.SIZE - 1) top = visit(current + BitBoard.SIZE, id, shipsLo, shipsHi, stack, top);
+            }
+            if (decksLeft[id] > 0) {
+                shipsAlive++;
+            }
+        }
+
+        this.lengths = Arrays.copyOf(lengths, ships + 1);
+        this.decksLeft = Arrays.copyOf(decksLeft, ships + 1);
+    }
+
+    private int visit(int cell, byte id, long shipsLo, long shipsHi, int[] stack, int top) {
+        if (shipAt[cell] == 0 && BitBoard.test(shipsLo, shipsHi, cell)) {
+            shipAt[cell] = id;
+            stack[top++] = cell;
+        }
+        return top;
+    }
+
+    public static ShipIndex build(BitBoard board) {
+        return new ShipIndex(board.getShipsLo(), board.getShipsHi(), board.getShotsLo(), board.getShotsHi());
+    }
+
+    // Попадание в новую палубу: возвращает true, если корабль потоплен
+    boolean hit(int cell) {
+        int id = shipAt[cell];
+        if (id == 0 || decksLeft[id] == 0) {
+            return false;
+        }
+        if (--decksLeft[id] == 0) {
+            shipsAlive--;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isSunk(int cell) {
+        int id = shipAt[cell];
+        return id != 0 && decksLeft[id] == 0;
+    }
+
+    // Номер корабля в клетке, 0 - если клетка пустая
+    public int shipAt(int cell) {
+        return shipAt[cell];
+    }
+
+    public int shipCount() {
+        return lengths.length - 1;
+    }
+
+    public int length(int shipId) {
+        return lengths[shipId];
+    }
+
+    public int decksLeft(int shipId) {
+        return decksLeft[shipId];
+    }
+
+    public int shipsAlive() {
+        return shipsAlive;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.engine;
+
+// Таблица всех допустимых положений корабля каждой длины на пустом поле.
+// Для положения хранятся маска палуб и маска ореола (палубы плюс соседние клетки),
+// в который не может попасть ни один другой корабль.
+public final class ShipPlacements {
+    private static final ShipPlacements[] BY_LENGTH = new ShipPlacements[FleetValidator.MAX_SHIP_LENGTH + 1];
+
+    static {
+        for (int length = 1; length <= FleetValidator.MAX_SHIP_LENGTH; length++) {
+            BY_LENGTH[length] = new ShipPlacements(length);
+        }
+    }
+
+    private final int length;
+    private final long[] cellsLo;
+    private final long[] cellsHi;
+    private final long[] haloLo;
+    private final long[] haloHi;
+
+    private ShipPlacements(int length) {
+        this.length = length;
+        // однопалубный корабль не различает ориентацию
+        int horizontal = (BitBoard.SIZE - length + 1) * BitBoard.SIZE;
+        int count = length == 1 ? horizontal : horizontal * 2;
+        cellsLo = new long[count];
+        cellsHi = new long[count];
+        haloLo = new long[count];
+        haloHi = new long[count];
+
+        int i = 0;
+        for (int vertical = 0; vertical < (length == 1 ? 1 : 2); vertical++) {
+            for (int y = 0; y < BitBoard.SIZE; y++) {
+                for (int x = 0; x < BitBoard.SIZE; x++) {
+                    int endX = vertical == 0 ? x + length - 1 : x;
+                    int endY = vertical == 0 ? y : y + length - 1;
+                    if (endX >= BitBoard.SIZE || endY >= BitBoard.SIZE) {
+                        continue;
+                    }
+                    for (int cy = y; cy <= endY; cy++) {
+                        for (int cx = x; cx <= endX; cx++) {
+                            int cell = BitBoard.index(cx, cy);
+                            cellsLo[i] |= BitBoard.bitLo(cell);
+                            cellsHi[i] |= BitBoard.bitHi(cell);
+                        }
+                    }
+                    for (int cy = Math.max(0, y - 1); cy <= Math.min(BitBoard.SIZE - 1, endY + 1); cy++) {
+                        for (int cx = Math.max(0, x - 1); cx <= Math.min(BitBoard.SIZE - 1, endX + 1); cx++) {
+                            int cell = BitBoard.index(cx, cy);
+                            haloLo[i] |= BitBoard.bitLo(cell);
+                            haloHi[i] |= BitBoard.bitHi(cell);
+                        }
+                    }
+                    i++;
+                }
+            }
+        }
+    }
+
+    public static ShipPlacements of(int length) {
+        return BY_LENGTH[length];
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int size() {
+        return cellsLo.length;
+    }
+
+    public long cellsLo(int i) {
+        return cellsLo[i];
+    }
+
+    public long cellsHi(int i) {
+        return cellsHi[i];
+    }
+
+    public long haloLo(int i) {
+        return haloLo[i];
+    }
+
+    public long haloHi(int i) {
+        return haloHi[i];
+    }
+
+    // Положение не задевает ни одной клетки из маски
+    public boolean fits(int i, long blockedLo, long blockedHi) {
+        return (cellsLo[i] & blockedLo) == 0 && (cellsHi[i] & blockedHi) == 0;
+    }
+
+    // То же, и положение не лежит целиком на клетках hits: такой корабль был бы уже потоплен
+    public boolean fits(int i, long blockedLo, long blockedHi, long hitsLo, long hitsHi) {
+        return fits(i, blockedLo, blockedHi) && ((cellsLo[i] & ~hitsLo) | (cellsHi[i] & ~hitsHi)) != 0;
+    }
+}
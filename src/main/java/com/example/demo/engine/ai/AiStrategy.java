@@ -0,0 +1,22 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.model.GameSession;
+
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+// Стратегия ИИ: выбор выстрела и расстановка флота. Реализации не хранят состояние партии -
+// всё, что нужно для хода, передаётся в Observation, поэтому один экземпляр обслуживает все игры.
+public interface AiStrategy {
+
+    GameSession.AiDifficulty difficulty();
+
+    // Индекс клетки для следующего выстрела, -1 если стрелять некуда
+    int selectShot(Observation observation, RandomGenerator random);
+
+    // Расстановка флота ИИ; по умолчанию - равновероятная из готового источника (пула)
+    default BitBoard placeFleet(Supplier<BitBoard> uniformFleets, RandomGenerator random) {
+        return uniformFleets.get();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.model.GameSession;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Стратегии ИИ по уровню сложности; у игр без уровня используется NORMAL
+public class AiStrategyRegistry {
+    private final Map<GameSession.AiDifficulty, AiStrategy> strategies = new EnumMap<>(GameSession.AiDifficulty.class);
+
+    public AiStrategyRegistry(Collection<? extends AiStrategy> strategies) {
+        for (AiStrategy strategy : strategies) {
+            if (this.strategies.putIfAbsent(strategy.difficulty(), strategy) != null) {
+                throw new IllegalStateException("Две стратегии ИИ для уровня " + strategy.difficulty());
+            }
+        }
+    }
+
+    public AiStrategy get(GameSession.AiDifficulty difficulty) {
+        GameSession.AiDifficulty key = difficulty != null ? difficulty : GameSession.AiDifficulty.NORMAL;
+        AiStrategy strategy = strategies.get(key);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Нет стратегии ИИ для уровня " + key);
+        }
+        return strategy;
+    }
+
+    public Map<GameSession.AiDifficulty, AiStrategy> all() {
+        return Map.copyOf(strategies);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.ShipPlacements;
+import com.example.demo.model.GameSession;
+
+import java.util.random.RandomGenerator;
+
+// Стратегия "охота/добивание" по плотности вероятности. Каждая неотстрелянная клетка получает вес,
+// равный числу положений оставшихся кораблей, которые могут её накрыть с учётом промахов,
+// потопленных кораблей и их ореолов. Пока есть недобитые палубы, считаются только положения через них.
+public final class HuntTargetStrategy implements AiStrategy {
+    // Положение через k недобитых палуб весит в 2^(6k) раз больше
+    private static final int OPEN_HIT_SHIFT = 6;
+
+    @Override
+    public GameSession.AiDifficulty difficulty() {
+        return GameSession.AiDifficulty.NORMAL;
+    }
+
+    @Override
+    public int selectShot(Observation observation, RandomGenerator random) {
+        long blockedLo = observation.getBlockedLo();
+        long blockedHi = observation.getBlockedHi();
+        long openLo = observation.getOpenHitsLo();
+        long openHi = observation.getOpenHitsHi();
+        long unknownLo = ~observation.getShotsLo();
+        long unknownHi = ~observation.getShotsHi() & BitBoard.HI_MASK;
+        boolean targeting = (openLo | openHi) != 0;
+
+        int[] score = new int[BitBoard.CELLS];
+        for (int length = 1; length <= FleetValidator.MAX_SHIP_LENGTH; length++) {
+            int ships = observation.remaining(length);
+            if (ships == 0) {
+                continue;
+            }
+            ShipPlacements placements = ShipPlacements.of(length);
+            for (int i = 0; i < placements.size(); i++) {
+                if (!placements.fits(i, blockedLo, blockedHi)) {
+                    continue;
+                }
+                long cellsLo = placements.cellsLo(i);
+                long cellsHi = placements.cellsHi(i);
+                // корабль не может касаться чужой недобитой палубы
+                if ((placements.haloLo(i) & ~cellsLo & openLo) != 0
+                        || (placements.haloHi(i) & ~cellsHi & openHi) != 0) {
+                    continue;
+                }
+                int covered = Long.bitCount(cellsLo & openLo) + Long.bitCount(cellsHi & openHi);
+                if (targeting && covered == 0) {
+                    continue;
+                }
+                int weight = ships << (OPEN_HIT_SHIFT * covered);
+                for (long bits = cellsLo & unknownLo; bits != 0; bits &= bits - 1) {
+                    score[Long.numberOfTrailingZeros(bits)] += weight;
+                }
+                for (long bits = cellsHi & unknownHi; bits != 0; bits &= bits - 1) {
+                    score[64 + Long.numberOfTrailingZeros(bits)] += weight;
+                }
+            }
+        }
+        return pickBest(score, unknownLo, unknownHi, random);
+    }
+
+    // Клетка с наибольшим весом, равные веса разыгрываются случайно
+    static int pickBest(int[] score, long unknownLo, long unknownHi, RandomGenerator random) {
+        int best = -1;
+        int bestScore = 0;
+        int ties = 0;
+        for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+            int value = score[cell];
+            if (value == 0 || value < bestScore) {
+                continue;
+            }
+            if (value > bestScore) {
+                bestScore = value;
+                best = cell;
+                ties = 1;
+            } else if (random.nextInt(++ties) == 0) {
+                best = cell;
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+        // несовместимые наблюдения: стреляем в любую неотстрелянную клетку
+        int unknown = Long.bitCount(unknownLo) + Long.bitCount(unknownHi);
+        return unknown == 0 ? -1 : BitBoard.selectCell(unknownLo, unknownHi, random.nextInt(unknown));
+    }
+}
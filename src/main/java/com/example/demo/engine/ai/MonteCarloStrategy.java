@@ -0,0 +1,125 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.model.GameSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.random.RandomGenerator;
+
+// "Эксперт": случайные расстановки оставшегося флота, согласованные с наблюдениями, набираются
+// параллельно на всех ядрах пула до исчерпания бюджета времени хода. Стреляем в клетку,
+// которую корабли занимают чаще всего. Если ни одна расстановка не подошла - охота/добивание.
+public final class MonteCarloStrategy implements AiStrategy {
+    // Часы проверяются не на каждой попытке, а раз в столько попыток
+    private static final int CLOCK_CHECK_MASK = 63;
+
+    private final ForkJoinPool pool;
+    private final long budgetNanos;
+    private final int sampleTarget;
+    private final HuntTargetStrategy fallback = new HuntTargetStrategy();
+
+    public MonteCarloStrategy(ForkJoinPool pool, long budgetNanos, int sampleTarget) {
+        this.pool = pool;
+        this.budgetNanos = budgetNanos;
+        this.sampleTarget = sampleTarget;
+    }
+
+    @Override
+    public GameSession.AiDifficulty difficulty() {
+        return GameSession.AiDifficulty.EXPERT;
+    }
+
+    @Override
+    public int selectShot(Observation observation, RandomGenerator random) {
+        Occupancy occupancy = sample(observation, random.nextLong());
+        if (occupancy.samples() == 0) {
+            return fallback.selectShot(observation, random);
+        }
+        long unknownLo = ~observation.getShotsLo();
+        long unknownHi = ~observation.getShotsHi() & BitBoard.HI_MASK;
+        return HuntTargetStrategy.pickBest(occupancy.counts(), unknownLo, unknownHi, random);
+    }
+
+    // Частоты занятости клеток по согласованным расстановкам, собранные за бюджет времени
+    public Occupancy sample(Observation observation, long seed) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int workers = pool.getParallelism();
+        int perWorker = Math.max(1, sampleTarget / workers);
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        List<Future<Occupancy>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            SplittableRandom random = seeds.split();
+            futures.add(pool.submit(() -> sampleUntil(observation, random, deadline, perWorker)));
+        }
+
+        int[] counts = new int[BitBoard.CELLS];
+        long samples = 0;
+        long attempts = 0;
+        for (Future<Occupancy> future : futures) {
+            try {
+                // задача, не успевшая стартовать до дедлайна, сразу вернёт пустой результат
+                Occupancy part = future.get(Math.max(0, deadline - System.nanoTime()) + budgetNanos,
+                        TimeUnit.NANOSECONDS);
+                for (int cell = 0; cell < BitBoard.CELLS; cell++) {
+                    counts[cell] += part.counts()[cell];
+                }
+                samples += part.samples();
+                attempts += part.attempts();
+            } catch (TimeoutException e) {
+                future.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка при сэмплировании расстановок", e.getCause());
+            }
+        }
+        return new Occupancy(counts, samples, attempts);
+    }
+
+    private static Occupancy sampleUntil(Observation observation, RandomGenerator random, long deadline, int target) {
+        int[] fleet = new int[FleetGenerator.FLEET.length];
+        int ships = observation.remainingFleet(fleet);
+        long[] layout = new long[2];
+        int[] counts = new int[BitBoard.CELLS];
+        long blockedLo = observation.getBlockedLo();
+        long blockedHi = observation.getBlockedHi();
+        long openLo = observation.getOpenHitsLo();
+        long openHi = observation.getOpenHitsHi();
+        long unknownLo = ~observation.getShotsLo();
+        long unknownHi = ~observation.getShotsHi() & BitBoard.HI_MASK;
+
+        long samples = 0;
+        long attempts = 0;
+        while (samples < target && ((attempts & CLOCK_CHECK_MASK) != 0 || System.nanoTime() < deadline)) {
+            attempts++;
+            if (!FleetGenerator.sample(random, blockedLo, blockedHi, openLo, openHi, fleet, ships, layout)) {
+                continue;
+            }
+            // расстановка должна объяснять все недобитые попадания
+            if ((layout[0] & openLo) != openLo || (layout[1] & openHi) != openHi) {
+                continue;
+            }
+            samples++;
+            for (long bits = layout[0] & unknownLo; bits != 0; bits &= bits - 1) {
+                counts[Long.numberOfTrailingZeros(bits)]++;
+            }
+            for (long bits = layout[1] & unknownHi; bits != 0; bits &= bits - 1) {
+                counts[64 + Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+        return new Occupancy(counts, samples, attempts);
+    }
+
+    public record Occupancy(int[] counts, long samples, long attempts) {
+    }
+}
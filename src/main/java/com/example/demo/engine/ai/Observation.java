@@ -0,0 +1,153 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.ShipPlacements;
+import com.example.demo.model.Move;
+
+// То, что стреляющий знает о поле противника: свои выстрелы, попадания, потопленные корабли
+// и оставшийся флот. Собирается только из результатов собственных ходов.
+public final class Observation {
+    private long shotsLo;
+    private long shotsHi;
+    private long hitsLo;
+    private long hitsHi;
+    private long sunkLo;
+    private long sunkHi;
+    private long blockedLo;     // промахи и ореолы потопленных кораблей: там кораблей нет
+    private long blockedHi;
+    private final int[] remaining = new int[FleetValidator.MAX_SHIP_LENGTH + 1];   // живые корабли по длине
+
+    public Observation() {
+        for (int length : FleetGenerator.FLEET) {
+            remaining[length]++;
+        }
+    }
+
+    // Учёт результата выстрела по клетке (x, y)
+    public void record(int x, int y, Move.MoveResult result) {
+        int cell = BitBoard.index(x, y);
+        long bitLo = BitBoard.bitLo(cell);
+        long bitHi = BitBoard.bitHi(cell);
+        shotsLo |= bitLo;
+        shotsHi |= bitHi;
+        if (result == Move.MoveResult.MISS) {
+            blockedLo |= bitLo;
+            blockedHi |= bitHi;
+            return;
+        }
+        if (result != Move.MoveResult.HIT && result != Move.MoveResult.SUNK) {
+            return;
+        }
+        hitsLo |= bitLo;
+        hitsHi |= bitHi;
+        if (result == Move.MoveResult.SUNK) {
+            markSunk(x, y);
+        }
+    }
+
+    // Корабли не касаются, поэтому потопленный корабль - это подбитые клетки на одной линии с последней
+    private void markSunk(int x, int y) {
+        int fromX = x;
+        int toX = x;
+        int fromY = y;
+        int toY = y;
+        while (fromX > 0 && isHit(fromX - 1, y)) fromX--;
+        while (toX < BitBoard.SIZE - 1 && isHit(toX + 1, y)) toX++;
+        while (fromY > 0 && isHit(x, fromY - 1)) fromY--;
+        while (toY < BitBoard.SIZE - 1 && isHit(x, toY + 1)) toY++;
+
+        for (int cx = fromX; cx <= toX; cx++) {
+            markSunkCell(BitBoard.index(cx, y));
+        }
+        for (int cy = fromY; cy <= toY; cy++) {
+            markSunkCell(BitBoard.index(x, cy));
+        }
+        int length = (toX - fromX) + (toY - fromY) + 1;
+        if (length < remaining.length && remaining[length] > 0) {
+            remaining[length]--;
+        }
+    }
+
+    private void markSunkCell(int cell) {
+        sunkLo |= BitBoard.bitLo(cell);
+        sunkHi |= BitBoard.bitHi(cell);
+        // ореол однопалубного положения в клетке - это сама клетка и её соседи
+        ShipPlacements singles = ShipPlacements.of(1);
+        blockedLo |= singles.haloLo(cell);
+        blockedHi |= singles.haloHi(cell);
+    }
+
+    private boolean isHit(int x, int y) {
+        return BitBoard.test(hitsLo, hitsHi, BitBoard.index(x, y));
+    }
+
+    public boolean isShot(int cell) {
+        return BitBoard.test(shotsLo, shotsHi, cell);
+    }
+
+    public long getShotsLo() {
+        return shotsLo;
+    }
+
+    public long getShotsHi() {
+        return shotsHi;
+    }
+
+    public long getHitsLo() {
+        return hitsLo;
+    }
+
+    public long getHitsHi() {
+        return hitsHi;
+    }
+
+    public long getSunkLo() {
+        return sunkLo;
+    }
+
+    public long getSunkHi() {
+        return sunkHi;
+    }
+
+    public long getBlockedLo() {
+        return blockedLo;
+    }
+
+    public long getBlockedHi() {
+        return blockedHi;
+    }
+
+    // Подбитые, но ещё не потопленные палубы
+    public long getOpenHitsLo() {
+        return hitsLo & ~sunkLo;
+    }
+
+    public long getOpenHitsHi() {
+        return hitsHi & ~sunkHi;
+    }
+
+    public int remaining(int length) {
+        return remaining[length];
+    }
+
+    // Длины оставшихся кораблей по убыванию; возвращает их количество
+    public int remainingFleet(int[] fleet) {
+        int count = 0;
+        for (int length = remaining.length - 1; length > 0; length--) {
+            for (int i = 0; i < remaining[length]; i++) {
+                fleet[count++] = length;
+            }
+        }
+        return count;
+    }
+
+    public int shipsRemaining() {
+        int ships = 0;
+        for (int count : remaining) {
+            ships += count;
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.model.GameSession;
+
+import java.util.random.RandomGenerator;
+
+// "Новичок": стреляет в случайную неотстрелянную клетку, как ИИ до охоты/добивания
+public final class RandomShotStrategy implements AiStrategy {
+
+    @Override
+    public GameSession.AiDifficulty difficulty() {
+        return GameSession.AiDifficulty.EASY;
+    }
+
+    @Override
+    public int selectShot(Observation observation, RandomGenerator random) {
+        long unknownLo = ~observation.getShotsLo();
+        long unknownHi = ~observation.getShotsHi() & BitBoard.HI_MASK;
+        int unknown = Long.bitCount(unknownLo) + Long.bitCount(unknownHi);
+        if (unknown == 0) {
+            return -1;
+        }
+        return BitBoard.selectCell(unknownLo, unknownHi, random.nextInt(unknown));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.engine.sim;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.engine.ai.AiStrategy;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.model.Move;
+
+import java.util.random.RandomGenerator;
+
+// Одна партия ИИ против ИИ в памяти по правилам GameLogicService: первый игрок начинает,
+// после попадания или потопления стреляющий ходит снова, партия заканчивается на последней палубе.
+public final class SelfPlay {
+
+    private SelfPlay() {
+    }
+
+    public static Result play(AiStrategy first, AiStrategy second, RandomGenerator random) {
+        AiStrategy[] players = {first, second};
+        // boards[i] - флот игрока i, по нему стреляет соперник
+        BitBoard[] boards = new BitBoard[2];
+        Observation[] observations = {new Observation(), new Observation()};
+        int[] shots = new int[2];
+        for (int i = 0; i < 2; i++) {
+            boards[i] = players[i].placeFleet(() -> FleetGenerator.generate(random), random);
+        }
+
+        int shooter = 0;
+        while (true) {
+            BitBoard target = boards[1 - shooter];
+            int cell = players[shooter].selectShot(observations[shooter], random);
+            if (cell < 0) {
+                throw new IllegalStateException("Стратегия " + players[shooter].difficulty() + " не нашла клетку для выстрела");
+            }
+            int x = cell % BitBoard.SIZE;
+            int y = cell / BitBoard.SIZE;
+            Move.MoveResult result = target.fire(x, y);
+            observations[shooter].record(x, y, result);
+            shots[shooter]++;
+
+            if (result == Move.MoveResult.SUNK && target.allShipsSunk()) {
+                return new Result(shooter, shots[shooter], shots[1 - shooter]);
+            }
+            if (result == Move.MoveResult.MISS) {
+                shooter = 1 - shooter;
+            }
+        }
+    }
+
+    // winner - 0 или 1 по порядку аргументов play()
+    public record Result(int winner, int winnerShots, int loserShots) {
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.engine.sim;
+
+import com.example.demo.engine.ai.AiStrategy;
+import com.example.demo.engine.ai.HuntTargetStrategy;
+import com.example.demo.engine.ai.MonteCarloStrategy;
+import com.example.demo.engine.ai.RandomShotStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Турнир ИИ против ИИ без Spring, JPA и кэша: каждая пара стратегий (и стратегия сама с собой)
+// играет заданное число партий, первый ход поочерёдно. Партии режутся на пачки и раздаются всем ядрам.
+// Запуск: java -cp target/classes com.example.demo.engine.sim.SelfPlaySimulator [партий на пару] [потоков]
+public final class SelfPlaySimulator {
+    // Партий в одной задаче пула: достаточно, чтобы накладные расходы на задачу были незаметны
+    private static final int GAMES_PER_TASK = 256;
+
+    private final List<AiStrategy> strategies;
+    private final int threads;
+
+    public SelfPlaySimulator(List<AiStrategy> strategies, int threads) {
+        this.strategies = List.copyOf(strategies);
+        this.threads = threads;
+    }
+
+    public Report run(int gamesPerPair, long seed) {
+        int n = strategies.size();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Report>> futures = new ArrayList<>();
+            for (int a = 0; a < n; a++) {
+                for (int b = a; b < n; b++) {
+                    for (int from = 0; from < gamesPerPair; from += GAMES_PER_TASK) {
+                        int first = a;
+                        int second = b;
+                        int games = Math.min(GAMES_PER_TASK, gamesPerPair - from);
+                        int offset = from;
+                        SplittableRandom random = seeds.split();
+                        futures.add(executor.submit(() -> playPair(first, second, offset, games, random)));
+                    }
+                }
+            }
+
+            Report total = new Report(n);
+            for (Future<Report> future : futures) {
+                total.add(future.get());
+            }
+            total.elapsedNanos = System.nanoTime() - start;
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Симуляция прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка в партии симуляции", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Пачка партий пары a-b; чётная партия по сквозному номеру начинается с a, нечётная - с b
+    private Report playPair(int a, int b, int offset, int games, SplittableRandom random) {
+        Report report = new Report(strategies.size());
+        for (int game = offset; game < offset + games; game++) {
+            boolean aFirst = (game & 1) == 0;
+            int first = aFirst ? a : b;
+            int second = aFirst ? b : a;
+            SelfPlay.Result result = SelfPlay.play(strategies.get(first), strategies.get(second), random);
+            int winner = result.winner() == 0 ? first : second;
+            int loser = result.winner() == 0 ? second : first;
+            report.record(winner, loser, result.winnerShots());
+        }
+        return report;
+    }
+
+    public static void main(String[] args) {
+        int gamesPerPair = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        // "эксперт" считает в одном потоке и с малым бюджетом: параллельность даёт турнир
+        ForkJoinPool expertPool = new ForkJoinPool(1);
+        try {
+            List<AiStrategy> strategies = List.of(
+                    new RandomShotStrategy(),
+                    new HuntTargetStrategy(),
+                    new MonteCarloStrategy(expertPool, TimeUnit.MILLISECONDS.toNanos(2), 2000));
+            Report report = new SelfPlaySimulator(strategies, threads).run(gamesPerPair, System.nanoTime());
+            System.out.println(report.format(strategies));
+        } finally {
+            expertPool.shutdownNow();
+        }
+    }
+
+    // Итоги турнира; индексы - позиции стратегий в списке симулятора
+    public static final class Report {
+        private final long[][] wins;
+        private final long[] winningShots;
+        private final long[] gamesWon;
+        private long games;
+        private long elapsedNanos;
+
+        Report(int strategies) {
+            wins = new long[strategies][strategies];
+            winningShots = new long[strategies];
+            gamesWon = new long[strategies];
+        }
+
+        void record(int winner, int loser, int shots) {
+            wins[winner][loser]++;
+            winningShots[winner] += shots;
+            gamesWon[winner]++;
+            games++;
+        }
+
+        void add(Report other) {
+            for (int i = 0; i < wins.length; i++) {
+                for (int j = 0; j < wins.length; j++) {
+                    wins[i][j] += other.wins[i][j];
+                }
+                winningShots[i] += other.winningShots[i];
+                gamesWon[i] += other.gamesWon[i];
+            }
+            games += other.games;
+        }
+
+        public long games() {
+            return games;
+        }
+
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+        }
+
+        // Среднее число выстрелов стратегии в выигранных партиях
+        public double averageShotsToWin(int strategy) {
+            return gamesWon[strategy] == 0 ? 0 : (double) winningShots[strategy] / gamesWon[strategy];
+        }
+
+        // Доля побед i над j среди их партий друг с другом; стратегия против себя - всегда 0.5
+        public double winRate(int i, int j) {
+            if (i == j) {
+                return 0.5;
+            }
+            long played = wins[i][j] + wins[j][i];
+            return played == 0 ? 0 : (double) wins[i][j] / played;
+        }
+
+        public String format(List<AiStrategy> strategies) {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.ROOT, "Партий: %d, %.0f партий/с%n", games, gamesPerSecond()));
+            out.append(String.format(Locale.ROOT, "%-8s %12s", "", "выстр./поб."));
+            for (AiStrategy column : strategies) {
+                out.append(String.format(Locale.ROOT, " %8s", column.difficulty()));
+            }
+            out.append(System.lineSeparator());
+            for (int i = 0; i < strategies.size(); i++) {
+                out.append(String.format(Locale.ROOT, "%-8s %12.1f", strategies.get(i).difficulty(), averageShotsToWin(i)));
+                for (int j = 0; j < strategies.size(); j++) {
+                    out.append(i == j ? String.format(Locale.ROOT, " %8s", "-")
+                            : String.format(Locale.ROOT, " %7.1f%%", 100 * winRate(i, j)));
+                }
+                out.append(System.lineSeparator());
+            }
+            return out.toString();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.demo.model;
 
+import com.example.demo.engine.BitBoard;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -25,15 +30,85 @@ public class Field {
     @ManyToOne
     private User player;
 
-    @Column(length = 200) // Достаточно для 10x10 поля
-    private String shipField; // Например, "0010001110...", где 100 символов
+    // Расстановка: 13 байт маски кораблей, пишется один раз при сохранении поля и больше не меняется
+    @Convert(converter = ShipMaskConverter.class)
+    @Column(name = "ships", columnDefinition = "BINARY(13)", updatable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BitBoard placement;
+
+    // Подбитые палубы (бит y * 10 + x) - единственное, что меняется по ходу игры
+    @ColumnDefault("0")
+    private long hitsLo;
+    @ColumnDefault("0")
+    private long hitsHi;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private BitBoard board;   // поле для игры: расстановка с выстрелами, строится один раз
+
+    public BitBoard getBoard() {
+        if (board == null && placement != null) {
+            board = new BitBoard(placement.getShipsLo(), placement.getShipsHi(), hitsLo, hitsHi);
+        }
+        return board;
+    }
+
+    // Установка поля из битовых масок: расстановка и подбитые палубы раздельно
+    public void setBoard(BitBoard board) {
+        this.board = board;
+        this.placement = new BitBoard(board.getShipsLo(), board.getShipsHi(), 0, 0);
+        this.hitsLo = board.getShotsLo() & board.getShipsLo();
+        this.hitsHi = board.getShotsHi() & board.getShipsHi();
+    }
+
+    // Строка из 100 символов '0'/'1'/'2' - для логов и ответов API, в БД не хранится
+    public String getShipField() {
+        BitBoard current = getBoard();
+        return current != null ? current.toFieldString() : null;
+    }
+
+    public void setShipField(String shipField) {
+        setBoard(BitBoard.fromString(shipField));
+    }
+
+    // Выстрелы, известные по журналу ходов, но, возможно, ещё не записанные в маску попаданий
+    public void applyShots(long shotsLo, long shotsHi) {
+        if (shotsLo == 0 && shotsHi == 0) {
+            return;
+        }
+        BitBoard current = getBoard();
+        if ((shotsLo & ~current.getShotsLo()) != 0 || (shotsHi & ~current.getShotsHi()) != 0) {
+            board = new BitBoard(current.getShipsLo(), current.getShipsHi(),
+                    current.getShotsLo() | shotsLo, current.getShotsHi() | shotsHi);
+        }
+    }
+
+    // Переносит попадания из поля в памяти в столбцы маски; true, если их нужно записать в БД
+    public boolean syncHits() {
+        if (board == null) {
+            return false;
+        }
+        long lo = board.getShotsLo() & board.getShipsLo();
+        long hi = board.getShotsHi() & board.getShipsHi();
+        if (lo == hitsLo && hi == hitsHi) {
+            return false;
+        }
+        hitsLo = lo;
+        hitsHi = hi;
+        return true;
+    }
 
     public List<List<Integer>> getFieldAsList() {
+        BitBoard board = getBoard();
         List<List<Integer>> result = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
             List<Integer> row = new ArrayList<>();
             for (int j = 0; j < 10; j++) {
-                row.add(Character.getNumericValue(shipField.charAt(i * 10 + j)));
+                row.add(board.cell(j, i));
             }
             result.add(row);
         }
@@ -47,6 +122,6 @@ public class Field {
                 sb.append(cell);
             }
         }
-        this.shipField = sb.toString();
+        setShipField(sb.toString());
     }
 }
@@ -3,15 +3,29 @@ package com.example.demo.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "games")  // после FINISHED не меняется
+@Table(indexes = {
+        @Index(name = "idx_game_player1_status", columnList = "player1_id, status"),
+        @Index(name = "idx_game_player2_status", columnList = "player2_id, status"),
+        @Index(name = "idx_game_player1_created", columnList = "player1_id, created_at, id"),   // история по курсору
+        @Index(name = "idx_game_player2_created", columnList = "player2_id, created_at, id")})
 public class GameSession {
     public enum GameType { PvP, PvE }
     public enum GameStatus { WAITING_FOR_PLAYER, IN_PROGRESS, FINISHED }
+    // Статусы незавершённой игры: перечислены явно, чтобы проверка шла точным поиском по индексу, а не диапазоном
+    public static final Set<GameStatus> ACTIVE_STATUSES = EnumSet.of(GameStatus.WAITING_FOR_PLAYER, GameStatus.IN_PROGRESS);
+    public enum AiDifficulty { EASY, NORMAL, EXPERT }
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,13 +49,21 @@ public class GameSession {
     @Enumerated(EnumType.STRING)
     private GameStatus status;
 
+    // Уровень ИИ для PvE; у старых игр null, что равно NORMAL
+    @Enumerated(EnumType.STRING)
+    private AiDifficulty aiDifficulty;
+
     private LocalDateTime finishedAt;
     private LocalDateTime createdAt;
 
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL)
     private List<Field> fields;
 
+    // Список ходов кэшируется по игре и сбрасывается при вставке хода в неё (auto_evict_collection_cache),
+    // поэтому у завершённых игр он остаётся в кэше
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL)
+    @OrderBy("createdAt ASC, id ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "game-moves")
     private List<Move> moves = new ArrayList<>();
 
     @Override
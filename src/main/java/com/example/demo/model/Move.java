@@ -6,6 +6,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,12 +15,16 @@ import java.util.Objects;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "moves")   // ход после вставки не меняется
 @Table(uniqueConstraints = {
         @UniqueConstraint(
                 name = "UK_move_unique",
                 columnNames = {"game_id", "player_id", "x", "y"}
         )})
 public class Move {
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     public enum MoveResult {
         HIT, MISS, INVALID, SUNK
     }
@@ -28,8 +34,12 @@ public class Move {
         return "Вы уже стреляли в клетку (" + x + "," + y + ")";
     }
 
+    // id выдаются из таблицы id_sequences блоками по 50: в отличие от IDENTITY,
+    // Hibernate не ждёт ключ после каждой вставки и пишет ходы JDBC-пакетами
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "move_id")
+    @TableGenerator(name = "move_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "move", allocationSize = Move.ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
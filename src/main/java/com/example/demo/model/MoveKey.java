@@ -0,0 +1,11 @@
+package com.example.demo.model;
+
+// Естественный ключ хода - как в UK_move_unique: игра, игрок, клетка
+public record MoveKey(Long gameId, Long playerId, int x, int y) {
+
+    public static MoveKey of(Move move) {
+        Long gameId = move.getGame() != null ? move.getGame().getId() : null;
+        Long playerId = move.getPlayer() != null ? move.getPlayer().getId() : null;
+        return new MoveKey(gameId, playerId, move.getX(), move.getY());
+    }
+}
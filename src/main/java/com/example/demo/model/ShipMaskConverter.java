@@ -0,0 +1,21 @@
+package com.example.demo.model;
+
+import com.example.demo.engine.BitBoard;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Расстановка <-> столбец BINARY(13): бит клетки i в байте i / 8 на позиции i % 8,
+// как в компактном запросе расстановки. Выстрелы в столбец не попадают.
+@Converter
+public class ShipMaskConverter implements AttributeConverter<BitBoard, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(BitBoard placement) {
+        return placement != null ? placement.toShipMask() : null;
+    }
+
+    @Override
+    public BitBoard convertToEntityAttribute(byte[] mask) {
+        return mask != null ? BitBoard.fromShipMask(mask) : null;
+    }
+}
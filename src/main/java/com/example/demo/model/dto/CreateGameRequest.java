@@ -7,4 +7,6 @@ import lombok.Data;
 public class CreateGameRequest {
     private Long creatorId;
     private GameSession.GameType gameType;
+    // Уровень ИИ для PvE, по умолчанию NORMAL
+    private GameSession.AiDifficulty difficulty;
 }
\ No newline at end of file
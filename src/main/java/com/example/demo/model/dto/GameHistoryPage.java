@@ -0,0 +1,13 @@
+package com.example.demo.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class GameHistoryPage {
+    private List<GameStatus> games;
+    private String nextCursor;   // null - это последняя страница
+}
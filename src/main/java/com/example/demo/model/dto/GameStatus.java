@@ -19,6 +19,23 @@ public class GameStatus {
     private LocalDateTime createdAt;
     private LocalDateTime finishedAt;
 
+    // Для выборки истории: поля берутся запросом с соединениями, без загрузки сущностей
+    public GameStatus(Long id, GameSession.GameType type, GameSession.GameStatus status,
+                      Long player1Id, String player1Name, Long player2Id, String player2Name,
+                      Long winnerId, String winnerName, LocalDateTime createdAt, LocalDateTime finishedAt) {
+        this.id = id;
+        this.type = type;
+        this.status = status;
+        this.player1Id = player1Id;
+        this.player1Name = player1Name;
+        this.player2Id = player2Id;
+        this.player2Name = player2Name;
+        this.winnerId = winnerId;
+        this.winnerName = winnerName;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+    }
+
     public GameStatus(GameSession game) {
         this.id = game.getId();
         this.type = game.getType();
@@ -4,13 +4,26 @@ import com.example.demo.model.Field;
 import com.example.demo.model.GameSession;
 import com.example.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface FieldRepository extends JpaRepository<Field, Long> {
     Optional<Field> findByGameAndPlayer(GameSession game, User player);
+    List<Field> findByGame(GameSession game);
+    List<Field> findByGameIn(Collection<GameSession> games);
+
+    // Запись маски попаданий в конце хода; расстановка не перезаписывается
+    @Transactional
+    @Modifying
+    @Query("UPDATE Field f SET f.hitsLo = :hitsLo, f.hitsHi = :hitsHi WHERE f.id = :id")
+    int updateHits(@Param("id") Long id, @Param("hitsLo") long hitsLo, @Param("hitsHi") long hitsHi);
 
 }
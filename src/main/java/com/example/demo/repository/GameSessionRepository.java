@@ -2,14 +2,53 @@ package com.example.demo.repository;
 
 import com.example.demo.model.GameSession;
 import com.example.demo.model.User;
+import com.example.demo.model.dto.GameStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GameSessionRepository extends JpaRepository<GameSession, Long> {
-    @Query("SELECT DISTINCT g FROM GameSession g LEFT JOIN FETCH g.moves WHERE g.id = :gameId")
     List<GameSession> findByStatus(GameSession.GameStatus status);
-    List<GameSession> findByPlayer1OrPlayer2(User player1, User player2);
+    // Страница игр по ключу: id > afterId по возрастанию, без OFFSET
+    List<GameSession> findByStatusNotAndIdGreaterThanOrderByIdAsc(GameSession.GameStatus status, Long afterId, Limit limit);
+    // Страница истории игрока от новых к старым, отдельно по каждой роли: запрос идёт по своему индексу
+    // (игрок, created_at, id) в порядке ключа и останавливается на LIMIT, без сортировки всей истории.
+    // Курсор - (createdAt, id) последней строки прошлой страницы; игры без createdAt (старые) при DESC
+    // идут последними и листаются по id. Строки сразу собираются в GameStatus, игроки и победитель -
+    // соединениями в том же запросе
+    String HISTORY_SELECT = "SELECT new com.example.demo.model.dto.GameStatus(g.id, g.type, g.status, p1.id, p1.name,"
+            + " p2.id, p2.name, w.id, w.name, g.createdAt, g.finishedAt)"
+            + " FROM GameSession g JOIN g.player1 p1 LEFT JOIN g.player2 p2 LEFT JOIN g.winner w WHERE ";
+    String HISTORY_PAGE = " AND (:status IS NULL OR g.status = :status)"
+            + " AND (:type IS NULL OR g.type = :type)"
+            + " AND (:beforeId IS NULL"
+            + "      OR (:beforeCreatedAt IS NULL AND g.createdAt IS NULL AND g.id < :beforeId)"
+            + "      OR (:beforeCreatedAt IS NOT NULL AND (g.createdAt IS NULL OR g.createdAt < :beforeCreatedAt"
+            + "          OR (g.createdAt = :beforeCreatedAt AND g.id < :beforeId))))"
+            + " ORDER BY g.createdAt DESC, g.id DESC";
+
+    @Query(HISTORY_SELECT + "g.player1.id = :userId" + HISTORY_PAGE)
+    List<GameStatus> findHistoryPageAsPlayer1(@Param("userId") Long userId,
+                                              @Param("status") GameSession.GameStatus status,
+                                              @Param("type") GameSession.GameType type,
+                                              @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              Limit limit);
+
+    @Query(HISTORY_SELECT + "g.player2.id = :userId" + HISTORY_PAGE)
+    List<GameStatus> findHistoryPageAsPlayer2(@Param("userId") Long userId,
+                                              @Param("status") GameSession.GameStatus status,
+                                              @Param("type") GameSession.GameType type,
+                                              @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                              @Param("beforeId") Long beforeId,
+                                              Limit limit);
+    // Есть ли у игрока незавершённая игра: по запросу на роль, каждый идёт по своему индексу (игрок, статус)
+    boolean existsByPlayer1AndStatusIn(User player1, Collection<GameSession.GameStatus> statuses);
+    boolean existsByPlayer2AndStatusIn(User player2, Collection<GameSession.GameStatus> statuses);
 }
@@ -2,6 +2,7 @@ package com.example.demo.repository;
 
 import com.example.demo.model.GameSession;
 import com.example.demo.model.Move;
+import com.example.demo.model.MoveKey;
 import com.example.demo.model.User;
 import com.example.demo.model.Move.MoveResult;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +21,12 @@ public interface MoveRepository extends JpaRepository<Move, Long> {
     boolean existsByGameAndPlayerAndXAndY(GameSession game, User player, int x, int y);
     // Добавляем новый метод
     List<Move> findByGameOrderByCreatedAtAsc(GameSession game);
+    // Ключи уже записанных ходов нескольких игр одним запросом - для отсева повторов перед вставкой
+    @Query("SELECT new com.example.demo.model.MoveKey(m.game.id, m.player.id, m.x, m.y) FROM Move m WHERE m.game.id IN :gameIds")
+    List<MoveKey> findKeysByGameIdIn(@Param("gameIds") Collection<Long> gameIds);
+    // Ходы сразу нескольких игр одним запросом, с игроками, в порядке записи
+    @Query("SELECT m FROM Move m LEFT JOIN FETCH m.player WHERE m.game IN :games ORDER BY m.id")
+    List<Move> findByGameIn(@Param("games") Collection<GameSession> games);
 }
 
 
@@ -0,0 +1,73 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Запас готовых расстановок флота ИИ, чтобы создание PvE-игры не ждало генерации.
+// Очередь без блокировок ограничена счётчиком; пополняет её только фоновая задача.
+@Component
+@Slf4j
+public class AiFleetPool {
+    private final Queue<BitBoard> layouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();     // расстановка взята из запаса
+    private final LongAdder misses = new LongAdder();   // запас пуст, генерация на месте
+    private final int capacity;
+
+    public AiFleetPool(@Value("${seabattle.ai.fleet-pool.capacity:512}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Расстановка из запаса либо, если он пуст, сгенерированная сразу
+    public BitBoard take() {
+        BitBoard board = layouts.poll();
+        if (board != null) {
+            size.decrementAndGet();
+            hits.increment();
+            return board;
+        }
+        misses.increment();
+        return FleetGenerator.generate(ThreadLocalRandom.current());
+    }
+
+    // Фоновое пополнение до полной ёмкости
+    @Scheduled(initialDelay = 0, fixedDelayString = "${seabattle.ai.fleet-pool.refill-delay-ms:100}")
+    public void refill() {
+        int added = 0;
+        while (size.get() < capacity) {
+            layouts.offer(FleetGenerator.generate(ThreadLocalRandom.current()));
+            size.incrementAndGet();
+            added++;
+        }
+        if (added > 0) {
+            log.debug("Запас расстановок ИИ пополнен на {}: в запасе {}, попаданий {}, промахов {}",
+                    added, size.get(), hits.sum(), misses.sum());
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+}
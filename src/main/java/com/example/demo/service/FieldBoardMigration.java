@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Однократный перенос полей из старого столбца ship_field (100 символов '0'/'1'/'2') в маски:
+// корабли - в ships BINARY(13), подбитые палубы '2' - в hits_lo/hits_hi. После переноса
+// ship_field обнуляется, повторный запуск ничего не делает. Выполняется до приёма запросов.
+@Component
+@Slf4j
+public class FieldBoardMigration implements InitializingBean {
+    private static final int PAGE_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // EntityManagerFactory в зависимостях: к этому моменту Hibernate уже добавил новые столбцы
+    public FieldBoardMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    // Возвращает число перенесённых полей
+    public int migrate() {
+        if (!hasLegacyColumn()) {
+            log.debug("Перенос полей не нужен: столбца ship_field нет");   // база создана уже с масками
+            return 0;
+        }
+        try {
+            return migrateRows();
+        } catch (DataAccessException e) {
+            // без переноса у старых полей нет маски кораблей - запускаться с ними нельзя
+            log.error("Перенос полей в битовые маски не выполнен", e);
+            throw e;
+        }
+    }
+
+    // Есть ли в таблице field старый столбец: по метаданным, а не по ошибке запроса
+    boolean hasLegacyColumn() {
+        Boolean present = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upper = metaData.storesUpperCaseIdentifiers();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    upper ? "FIELD" : "field", upper ? "SHIP_FIELD" : "ship_field")) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(present);
+    }
+
+    private int migrateRows() {
+        int migrated = 0;
+        List<Map<String, Object>> page;
+        do {
+            page = jdbcTemplate.queryForList(
+                    "SELECT id, ship_field, hits_lo, hits_hi FROM field"
+                            + " WHERE ships IS NULL AND ship_field IS NOT NULL ORDER BY id LIMIT " + PAGE_SIZE);
+            List<Object[]> rows = new ArrayList<>(page.size());
+            for (Map<String, Object> row : page) {
+                BitBoard board = BitBoard.fromString((String) row.get("ship_field"));
+                long hitsLo = toLong(row.get("hits_lo")) | (board.getShotsLo() & board.getShipsLo());
+                long hitsHi = toLong(row.get("hits_hi")) | (board.getShotsHi() & board.getShipsHi());
+                rows.add(new Object[]{board.toShipMask(), hitsLo, hitsHi, row.get("id")});
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE field SET ships = ?, hits_lo = ?, hits_hi = ?, ship_field = NULL WHERE id = ?", rows);
+            migrated += rows.size();
+        } while (page.size() == PAGE_SIZE);
+
+        if (migrated > 0) {
+            log.info("Поля переведены в битовые маски: {}", migrated);
+        }
+        return migrated;
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.exception.GameNotFoundException;
+import com.example.demo.model.Field;
 import com.example.demo.model.Move;
 import com.example.demo.model.GameSession;
+import com.example.demo.model.User;
+import com.example.demo.repository.FieldRepository;
+import com.example.demo.repository.GameSessionRepository;
 import com.example.demo.repository.MoveRepository;
 import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
@@ -9,71 +16,185 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service                    // сервисный компонент
 @RequiredArgsConstructor    // генерация конструктора с обязательными аргументами
 @Slf4j                      // добавляет логирование
 public class GameCacheService {
-    private final Cache<Long, List<Move>> movesCache;
+    private final Cache<Long, GameState> gameStateCache;
+    private final Cache<Long, Observation> aiObservationCache;
     private final MoveRepository moveRepository;
+    private final FieldRepository fieldRepository;
+    private final GameSessionRepository gameRepository;
+    private final MoveWriteBehind moveWriteBehind;
 
-    // Добавление хода в кэш
-    public void cacheMove(Long gameId, Move move) {
-        if (gameId == null) {
-            log.warn("gameId = null!");
-            logCacheStats(); // Вывод статистики для отладки
-            return;
-        }
-        log.debug("Попытка кэширования хода для игры {}: ({}, {})", gameId, move.getX(), move.getY());
-        // Получаем текущие ходы из кэша или создаем новый список
-        List<Move> cachedMoves = Optional.ofNullable(movesCache.getIfPresent(gameId))
-                .orElse(new ArrayList<>());
-        cachedMoves.add(move);  // добавляем ход в список
-        movesCache.put(gameId, cachedMoves); // обновляем кеш
+    // Состояние партии из кэша; при промахе собирается из БД (игра, поля, ходы) один раз
+    public GameState getGameState(Long gameId) {
+        return gameStateCache.get(gameId, this::loadState);
+    }
+
+    // Результат выстрела: записанный ход и поле, по которому стреляли
+    public record Shot(Move move, Field opponentField) {
+    }
+
+    // Выстрел целиком под блокировкой записи кэша игры: очередь хода, повторная клетка, выстрел по полю
+    // и добавление в журнал идут одним compute - два одновременных запроса не пройдут проверку оба,
+    // и маски поля не меняются из двух потоков сразу
+    public Shot fire(GameSession game, User player, int slot, int x, int y, boolean checkTurn) {
+        Shot[] shot = new Shot[1];
+        gameStateCache.asMap().compute(game.getId(), (id, state) -> {
+            GameState target = state != null ? state : loadState(id);
+            MoveLog moves = target.getMoves();
+            if (checkTurn && moves.toMove() != slot) {
+                throw new IllegalStateException("Сейчас не ваш ход");
+            }
+            if (moves.isAttacked(slot, BitBoard.index(x, y))) {
+                throw new IllegalStateException("Клетка уже атакована");
+            }
+            Field opponentField = target.field(1 - slot);
+            if (opponentField == null) {
+                throw new IllegalStateException("Поле противника не найдено");
+            }
+            Move move = new Move();
+            move.setCreatedAt(LocalDateTime.now());
+            move.setGame(game);
+            move.setPlayer(player);
+            move.setX(x);
+            move.setY(y);
+            move.setResult(opponentField.getBoard().fire(x, y));
+            append(moves, move, slot);
+            shot[0] = new Shot(move, opponentField);
+            return target;
+        });
 
         log.info("Ход успешно сохранён в кэш. Игра: {}, игрок: {}, результат: {}",
-                gameId, move.getPlayer().getName(), move.getResult());
+                game.getId(), player.getName(), shot[0].move().getResult());
+        return shot[0];
+    }
+
+    private void append(MoveLog moves, Move move, int player) {
+        moves.append(move, player);
+        moveWriteBehind.enqueue(move);  // сразу в журнал, в БД - пакетом в фоне
     }
 
-    // Получение всех ходов из кэша
+    // Получение всех ходов из кэша: неизменяемый снимок журнала без копирования
     public List<Move> getCachedMoves(Long gameId) {
-        // получаем ходы из списка, либо пустой список
-        List<Move> moves = Optional.ofNullable(movesCache.getIfPresent(gameId))
-                .orElse(new ArrayList<>());
+        GameState state = gameStateCache.getIfPresent(gameId);
+        List<Move> snapshot = state != null ? state.getMoves().snapshot() : List.of();
 
-        log.debug("Получено ходов из кэша для игры {}: {}", gameId, moves.size());
-        moves.forEach(move -> log.trace("Ход из кэша: {}", move)); // Детали ходов (если нужно)
-        return moves;
+        log.debug("Получено ходов из кэша для игры {}: {}", gameId, snapshot.size());
+        if (log.isTraceEnabled()) {
+            snapshot.forEach(move -> log.trace("Ход из кэша: {}", move)); // Детали ходов (если нужно)
+        }
+        return snapshot;
+    }
+
+    // Состояние только что созданной игры: полей и ходов ещё нет, БД не читается и очередь записи не ждётся
+    public void initializeCacheForNewGame(GameSession game) {
+        if (game.getId() == null) {
+            log.warn("Попытка инициализации кэша для gameId=null");
+            return;
+        }
+        gameStateCache.put(game.getId(), new GameState(game, List.of(), new MoveLog()));
+        log.debug("Кэш новой игры {} инициализирован", game.getId());
     }
 
-    // инициализация кеша
-    public void initializeCacheForGame(Long gameId) {
+    // инициализация кеша при присоединении: до второго игрока в игре не было ходов, поэтому
+    // очередь записи не сбрасывается - из БД читаются только расстановки
+    public void initializeCacheForGame(GameSession game) {
+        Long gameId = game.getId();
         if (gameId == null) {
             log.warn("Попытка инициализации кэша для gameId=null");
             return;
         }
         log.debug("Инициализация кэша для игры {}", gameId);
-        // если кеш пуст
-        if (movesCache.getIfPresent(gameId) == null) {
-            GameSession tempGame = new GameSession();
-            tempGame.setId(gameId);
-            List<Move> dbMoves = moveRepository.findByGame(tempGame);   // загружаем из БД
-            movesCache.put(gameId, new ArrayList<>(dbMoves));           // сохраняем ходы в кеш
-
-            log.info("Кэш инициализирован. Игра: {}, загружено ходов: {}", gameId, dbMoves.size());
-            dbMoves.forEach(move -> log.debug("Загружен ход: {}", move)); // Детали ходов
+        // если кеш пуст - загружаем из БД, иначе только подменяем сущность игры:
+        // уже добавленные ходы и поля сохраняются
+        gameStateCache.asMap().compute(gameId,
+                (id, state) -> state == null ? buildState(game, false) : state.withGame(game));
+    }
+
+    // Поле, сохранённое после расстановки, добавляется в состояние партии, если оно уже в кэше
+    public void registerField(Field field) {
+        Long gameId = field.getGame().getId();
+        gameStateCache.asMap().computeIfPresent(gameId, (id, state) -> {
+            state.putField(field);
+            return state;
+        });
+    }
+
+    // Прогрев: состояния пачки игр собираются двумя запросами (поля и ходы всех игр сразу).
+    // Игры, уже попавшие в кэш через обычный ход, не перезаписываются. Возвращает число добавленных.
+    public int warmUp(List<GameSession> games) {
+        if (games.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<Field>> fields = new HashMap<>();
+        for (Field field : fieldRepository.findByGameIn(games)) {
+            fields.computeIfAbsent(field.getGame().getId(), id -> new ArrayList<>()).add(field);
+        }
+        Map<Long, List<Move>> moves = new HashMap<>();
+        for (Move move : moveRepository.findByGameIn(games)) {
+            moves.computeIfAbsent(move.getGame().getId(), id -> new ArrayList<>()).add(move);
+        }
+        int loaded = 0;
+        for (GameSession game : games) {
+            Long player1Id = game.getPlayer1() != null ? game.getPlayer1().getId() : null;
+            GameState state = new GameState(game, fields.getOrDefault(game.getId(), List.of()),
+                    MoveLog.of(moves.getOrDefault(game.getId(), List.of()), player1Id));
+            if (gameStateCache.asMap().putIfAbsent(game.getId(), state) == null) {
+                loaded++;
+            }
+        }
+        log.debug("Прогрев кэша: игр {}, добавлено {}", games.size(), loaded);
+        return loaded;
+    }
+
+    private GameState loadState(Long gameId) {
+        GameSession game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new GameNotFoundException(gameId));
+        return buildState(game, true);
+    }
+
+    // Запись всех ходов из очереди в БД с ожиданием
+    public void flushMoves() {
+        moveWriteBehind.flush();
+    }
+
+    // Перезагрузка игры, вытесненной из кэша: её ходы могут ещё стоять в очереди записи
+    // и должны оказаться в БД до загрузки
+    private GameState buildState(GameSession game, boolean flushQueued) {
+        if (flushQueued) {
+            moveWriteBehind.flush();
         }
+        List<Field> fields = fieldRepository.findByGame(game);
+        List<Move> dbMoves = moveRepository.findByGame(game);
+        Long player1Id = game.getPlayer1() != null ? game.getPlayer1().getId() : null;
+
+        log.info("Кэш инициализирован. Игра: {}, загружено полей: {}, ходов: {}", game.getId(), fields.size(), dbMoves.size());
+        dbMoves.forEach(move -> log.debug("Загружен ход: {}", move)); // Детали ходов
+        return new GameState(game, fields, MoveLog.of(dbMoves, player1Id));
+    }
+
+    // Наблюдения ИИ за игру; при промахе кэша восстанавливаются загрузчиком (обычно по ходам из кэша)
+    public Observation getAiObservation(Long gameId, Function<Long, Observation> loader) {
+        return aiObservationCache.get(gameId, loader);
     }
+
     // логирование статистики кеша
     public void logCacheStats() {
-        log.info("Статистика кэша: {}", movesCache.stats());
+        log.info("Статистика кэша: {}", gameStateCache.stats());
     }
     // Очистка кэша для конкретной игры
     public void invalidateCache(Long gameId) {
         log.debug("Очистка кэша для игры {}", gameId);
-        movesCache.invalidate(gameId);
+        gameStateCache.invalidate(gameId);
+        aiObservationCache.invalidate(gameId);
     }
 }
\ No newline at end of file
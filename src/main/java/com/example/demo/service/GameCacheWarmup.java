@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.repository.GameSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Прогрев кэша после перезапуска: все незавершённые игры с полями и ходами загружаются
+// до того, как приложение сообщит о готовности (ApplicationRunner выполняется раньше ReadyEvent).
+// Игры читаются страницами по ключу, страницы собираются в состояния параллельно.
+@Component
+@Slf4j
+public class GameCacheWarmup implements ApplicationRunner {
+    private final GameSessionRepository gameRepository;
+    private final GameCacheService gameCacheService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int pageSize;
+    private final int threads;
+
+    public GameCacheWarmup(GameSessionRepository gameRepository,
+                           GameCacheService gameCacheService,
+                           MeterRegistry meterRegistry,
+                           @Value("${seabattle.cache.warmup.enabled:true}") boolean enabled,
+                           @Value("${seabattle.cache.warmup.page-size:500}") int pageSize,
+                           @Value("${seabattle.cache.warmup.threads:4}") int threads) {
+        this.gameRepository = gameRepository;
+        this.gameCacheService = gameCacheService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (enabled) {
+            warmUp();
+        }
+    }
+
+    // Возвращает число игр, добавленных в кэш
+    public int warmUp() throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> pages = new ArrayList<>();
+        int games = 0;
+        try {
+            long afterId = 0;
+            List<GameSession> page;
+            do {
+                page = gameRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(
+                        GameSession.GameStatus.FINISHED, afterId, Limit.of(pageSize));
+                if (!page.isEmpty()) {
+                    List<GameSession> batch = page;
+                    pages.add(executor.submit(() -> gameCacheService.warmUp(batch)));
+                    afterId = page.get(page.size() - 1).getId();
+                    games += page.size();
+                }
+            } while (page.size() == pageSize);
+
+            int loaded = 0;
+            for (Future<Integer> future : pages) {
+                try {
+                    loaded += future.get();
+                } catch (ExecutionException e) {
+                    // такие игры загрузятся при первом обращении, как раньше
+                    log.warn("Не удалось прогреть страницу игр: {}", e.getCause().getMessage());
+                }
+            }
+            Duration duration = Duration.ofNanos(System.nanoTime() - start);
+            meterRegistry.timer("seabattle.cache.warmup").record(duration);
+            log.info("Прогрев кэша завершён за {} мс: незавершённых игр {}, загружено {}",
+                    duration.toMillis(), games, loaded);
+            return loaded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.PlacementCheck;
 import com.example.demo.exception.GameNotFoundException;
 import com.example.demo.model.*;
+import com.example.demo.model.dto.GameHistoryPage;
+import com.example.demo.model.dto.GameStatus;
 import com.example.demo.model.dto.MakeMoveRequest;
 import com.example.demo.model.dto.MoveResultResponse;
 import com.example.demo.repository.GameSessionRepository;
 import com.example.demo.repository.FieldRepository;
 import com.example.demo.repository.MoveRepository;
-import com.example.demo.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service            // сервисный компонент
@@ -23,18 +29,25 @@ import java.util.*;
 public class GameService {
     private final FieldRepository shipRepository;
     private final GameSessionRepository gameRepository;
-    private final UserRepository userRepository;
+    private final UserCacheService userCacheService;
     private final GameLogicService gameLogicService;
     private final AiService aiService;
     private final GameCacheService gameCacheService;
     private final MoveRepository moveRepository;
 
+    public static final int HISTORY_DEFAULT_PAGE_SIZE = 20;
+    public static final int HISTORY_MAX_PAGE_SIZE = 100;
+    // Старые игры без даты создания идут в конце истории по id; в курсоре дата у них "null"
+    private static final String NULL_CREATED_AT = "null";
+
     // метод обработки хода игрока
     @Transactional
     public MoveResultResponse processPlayerMove(Long gameId, MakeMoveRequest request) {
-        GameSession game = gameRepository.findById(gameId)      // получаем игру
-                .orElseThrow(() -> new GameNotFoundException(gameId));
-        User player = getPlayerById(request.getPlayerId());     // получаем игрока
+        // игра и игроки берутся из состояния партии в кэше, без запросов к БД
+        GameState state = gameCacheService.getGameState(gameId);
+        GameSession game = state.getGame();
+        User player = state.findPlayer(request.getPlayerId())
+                .orElseThrow(() -> new IllegalArgumentException("Игрок не участвует в игре"));
 
         // Ход игрока (внутри makeMove ход уже сохраняется в кэш)
         Move.MoveResult playerResult = gameLogicService.makeMove(game, player, request.getX(), request.getY());
@@ -97,6 +110,21 @@ public class GameService {
 
     // сохранение расстановки кораблей
     public void saveShipPlacement(GameSession game, User player, List<List<String>> field) {
+        checkPlacementAllowed(game, player);
+        PlacementCheck check = FleetValidator.validate(field);
+        rejectInvalidPlacement(game, check);
+        saveBoard(game, player, BitBoard.fromRows(field));
+    }
+
+    // сохранение расстановки, пришедшей в компактном виде битовой маски
+    public void saveShipPlacement(GameSession game, User player, BitBoard board) {
+        checkPlacementAllowed(game, player);
+        PlacementCheck check = FleetValidator.validate(board);
+        rejectInvalidPlacement(game, check);
+        saveBoard(game, player, board);
+    }
+
+    private void checkPlacementAllowed(GameSession game, User player) {
         if (game.getStatus() == GameSession.GameStatus.FINISHED) {
             throw new IllegalStateException("Игра уже завершена");
         }
@@ -105,102 +133,36 @@ public class GameService {
         if (existingField.isPresent()) {
             throw new IllegalStateException("Расстановка кораблей уже выполнена и не может быть изменена");
         }
+    }
 
-        if (!isValidShipPlacement(field)) {
-            throw new IllegalArgumentException("Неверная расстановка кораблей: неверное количество или размер кораблей");
-        }
-        if (!checkShipSpacing(field)) {
-            throw new IllegalArgumentException("Корабли должны находиться на расстоянии минимум 1 клетки друг от друга");
+    private void rejectInvalidPlacement(GameSession game, PlacementCheck check) {
+        if (!check.isValid()) {
+            log.warn("Неверная расстановка кораблей в игре {}: {}", game.getId(), check);
+            throw new IllegalArgumentException(check.getMessage());
         }
+    }
+
+    private void saveBoard(GameSession game, User player, BitBoard board) {
+        board.getShipIndex();   // индекс кораблей строится один раз при сохранении
 
         Field fieldEntity = new Field();
         fieldEntity.setGame(game);
         fieldEntity.setPlayer(player);
-        fieldEntity.setShipField(convertToString(field));
+        fieldEntity.setBoard(board);
 
         shipRepository.save(fieldEntity);
+        gameCacheService.registerField(fieldEntity);
     }
 
-    // метод проверки расстояния между кораблями
-    boolean checkShipSpacing(List<List<String>> field) {
-        boolean[][] visited = new boolean[10][10];
-        List<Set<Point>> ships = new ArrayList<>();
-
-        // Находим все корабли
-        for (int y = 0; y < 10; y++) {
-            for (int x = 0; x < 10; x++) {
-                if (field.get(y).get(x).equals("1") && !visited[y][x]) {
-                    Set<Point> ship = new HashSet<>();
-                    discoverShip(field, x, y, visited, ship);
-                    ships.add(ship);
-                }
-            }
-        }
-
-        // Проверяем расстояние между разными кораблями
-        for (int i = 0; i < ships.size(); i++) {
-            Set<Point> currentShip = ships.get(i);
-
-            for (Point p : currentShip) {
-                // Проверяем все 8 соседних клеток
-                for (int dy = -1; dy <= 1; dy++) {
-                    for (int dx = -1; dx <= 1; dx++) {
-                        if (dx == 0 && dy == 0) continue;
-
-                        int nx = p.x + dx;
-                        int ny = p.y + dy;
-
-                        if (nx >= 0 && nx < 10 && ny >= 0 && ny < 10) {
-                            // Если клетка с кораблём и не принадлежит текущему кораблю
-                            if (field.get(ny).get(nx).equals("1") && !currentShip.contains(new Point(nx, ny))) {
-                                return false;
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return true;
-    }
-
-    // метод проверки валидности расстановки кораблей
-    boolean isValidShipPlacement(List<List<String>> field) {
-        // Проверка размера поля
-        if (field.size() != 10 || field.stream().anyMatch(row -> row.size() != 10)) {
-            return false;
-        }
-
-        // Проверка количества и размеров кораблей
-        Map<Integer, Integer> shipCounts = new HashMap<>();
-        boolean[][] visited = new boolean[10][10];
-        int totalShips = 0;
-
-        for (int y = 0; y < 10; y++) {
-            for (int x = 0; x < 10; x++) {
-                if (field.get(y).get(x).equals("1") && !visited[y][x]) {
-                    int size = discoverShips(field, x, y, visited);
-                    shipCounts.put(size, shipCounts.getOrDefault(size, 0) + 1);
-                    totalShips++;
-                }
-            }
-        }
-
-        // Проверяем общее количество кораблей (должно быть 10)
-        if (totalShips != 10) {
-            log.error("Неверное общее количество кораблей: {}", totalShips);
-            return false;
-        }
-
-        // Проверяем количество кораблей каждого типа
-        return shipCounts.getOrDefault(4, 0) == 1 &&  // 1 x 4-палубный
-                shipCounts.getOrDefault(3, 0) == 2 &&  // 2 x 3-палубных
-                shipCounts.getOrDefault(2, 0) == 3 &&  // 3 x 2-палубных
-                shipCounts.getOrDefault(1, 0) == 4;    // 4 x 1-палубных
+    // создание игры; вызов перегрузки через this идёт мимо прокси, поэтому транзакция объявлена на обеих
+    @Transactional
+    public GameSession createGame(User creator, GameSession.GameType gameType) {
+        return createGame(creator, gameType, null);
     }
 
-    // создание игры
+    // Контроллер вызывает эту перегрузку: без поля ИИ игра не должна сохраниться
     @Transactional
-    public GameSession createGame(User creator, GameSession.GameType gameType) {
+    public GameSession createGame(User creator, GameSession.GameType gameType, GameSession.AiDifficulty difficulty) {
         GameSession game = new GameSession();
         game.setPlayer1(creator);
         game.setType(gameType);
@@ -208,9 +170,9 @@ public class GameService {
 
         // Если это PvE, автоматически добавляем ИИ как второго игрока
         if (gameType == GameSession.GameType.PvE) {
-            aiPlayer = userRepository.findByName("AI Player")
-                    .orElseThrow(() -> new RuntimeException("ИИ игрок не найден"));
+            aiPlayer = userCacheService.getAiPlayer();
             game.setPlayer2(aiPlayer);
+            game.setAiDifficulty(difficulty != null ? difficulty : GameSession.AiDifficulty.NORMAL);
             game.setStatus(GameSession.GameStatus.IN_PROGRESS);
         } else {
             game.setStatus(GameSession.GameStatus.WAITING_FOR_PLAYER);
@@ -221,12 +183,17 @@ public class GameService {
         // Сначала сохраняем игру, чтобы получить ID
         GameSession savedGame = gameRepository.save(game);
 
-        // Затем инициализируем кэш
-        gameCacheService.initializeCacheForGame(savedGame.getId());
+        // Затем инициализируем кэш: новая игра пуста, БД не читается
+        gameCacheService.initializeCacheForNewGame(savedGame);
 
         // Для PvE расставляем корабли ИИ после сохранения игры
         if (gameType == GameSession.GameType.PvE) {
-            aiService.setupAiShips(savedGame, aiPlayer);
+            try {
+                aiService.setupAiShips(savedGame, aiPlayer);
+            } catch (RuntimeException e) {
+                gameCacheService.invalidateCache(savedGame.getId());   // игра откатится вместе с транзакцией
+                throw e;
+            }
         }
 
         return savedGame;
@@ -251,48 +218,85 @@ public class GameService {
             game.setStatus(GameSession.GameStatus.IN_PROGRESS);
         }
         // Инициализация кэша при присоединении
-        gameCacheService.initializeCacheForGame(gameId);
+        gameCacheService.initializeCacheForGame(game);
         return gameRepository.save(game);
     }
 
-    // конвертация поля в строку из 0 и 1
-    private String convertToString(List<List<String>> field) {
-        StringBuilder sb = new StringBuilder();
-        for (List<String> row : field) {
-            for (String cell : row) {
-                sb.append(cell);
+    // Страница истории по курсору: по запросу на каждую роль игрока, слияние двух упорядоченных списков
+    // в памяти. Строкой больше размера страницы проверяется, есть ли следующая
+    public GameHistoryPage getUserGameHistory(Long userId, String cursor, int size,
+                                              GameSession.GameStatus status, GameSession.GameType type) {
+        int pageSize = Math.max(1, Math.min(size, HISTORY_MAX_PAGE_SIZE));
+        LocalDateTime beforeCreatedAt = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            beforeCreatedAt = NULL_CREATED_AT.equals(parts[0]) ? null : LocalDateTime.parse(parts[0]);
+            beforeId = Long.parseLong(parts[1]);
+        }
+        Limit limit = Limit.of(pageSize + 1);
+        List<GameStatus> rows = mergeHistory(
+                gameRepository.findHistoryPageAsPlayer1(userId, status, type, beforeCreatedAt, beforeId, limit),
+                gameRepository.findHistoryPageAsPlayer2(userId, status, type, beforeCreatedAt, beforeId, limit),
+                pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new GameHistoryPage(rows, null);
+        }
+        List<GameStatus> page = rows.subList(0, pageSize);
+        GameStatus last = page.get(pageSize - 1);
+        return new GameHistoryPage(page, encodeCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    // Порядок истории: новые выше, игры без даты создания - в конце, внутри одной даты - по убыванию id
+    private static final Comparator<GameStatus> HISTORY_ORDER = Comparator
+            .comparing(GameStatus::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(GameStatus::getId)
+            .reversed();
+
+    private static List<GameStatus> mergeHistory(List<GameStatus> asPlayer1, List<GameStatus> asPlayer2, int limit) {
+        List<GameStatus> merged = new ArrayList<>(Math.min(limit, asPlayer1.size() + asPlayer2.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < asPlayer1.size() || j < asPlayer2.size())) {
+            if (j == asPlayer2.size()
+                    || (i < asPlayer1.size() && HISTORY_ORDER.compare(asPlayer1.get(i), asPlayer2.get(j)) <= 0)) {
+                merged.add(asPlayer1.get(i++));
+            } else {
+                merged.add(asPlayer2.get(j++));
             }
         }
-        return sb.toString();
+        return merged;
     }
 
-    // метод нахождения кораблей
-    private int discoverShips(List<List<String>> field, int x, int y, boolean[][] visited) {
-        Set<Point> ship = new HashSet<>();
-        discoverShip(field, x, y, visited, ship);
-        return ship.size();
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
     }
 
-    // Метод для обнаружения корабля целиком
-    private void discoverShip(List<List<String>> field, int x, int y,
-                              boolean[][] visited, Set<Point> ship) {
-        if (x < 0 || x >= 10 || y < 0 || y >= 10 ||
-                !field.get(y).get(x).equals("1") || visited[y][x]) {
-            return;
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Некорректный курсор истории");
+            }
+            if (!NULL_CREATED_AT.equals(parts[0])) {
+                LocalDateTime.parse(parts[0]);
+            }
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор истории", e);
         }
+    }
 
-        visited[y][x] = true;
-        ship.add(new Point(x, y));
-
-        // Проверяем только горизонтальные и вертикальные направления
-        discoverShip(field, x+1, y, visited, ship); // право
-        discoverShip(field, x-1, y, visited, ship); // лево
-        discoverShip(field, x, y+1, visited, ship); // низ
-        discoverShip(field, x, y-1, visited, ship); // верх
+    // Проверка перед созданием и присоединением: два запроса существования вместо загрузки всей истории
+    public boolean hasActiveGame(User user) {
+        return gameRepository.existsByPlayer1AndStatusIn(user, GameSession.ACTIVE_STATUSES)
+                || gameRepository.existsByPlayer2AndStatusIn(user, GameSession.ACTIVE_STATUSES);
     }
 
-    public List<GameSession> getUserGameHistory(User user) {
-        return gameRepository.findByPlayer1OrPlayer2(user, user);
+    public GameState getGameState(Long gameId) {
+        return gameCacheService.getGameState(gameId);
     }
 
     public Optional<GameSession> getGameById(Long gameId) {
@@ -300,13 +304,7 @@ public class GameService {
     }
 
     public User getPlayerById(Long playerId) {
-        return userRepository.findById(playerId)
+        return userCacheService.findById(playerId)
                 .orElseThrow(() -> new RuntimeException("Игрок не найден"));
     }
-
-    @Value
-    static class Point {
-        int x;
-        int y;
-    }
 }
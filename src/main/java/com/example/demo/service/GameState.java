@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.model.Field;
+import com.example.demo.model.GameSession;
+import com.example.demo.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+// Состояние партии в кэше: сама игра с игроками, типом и статусом, поля обоих игроков
+// (корабли и выстрелы в масках BitBoard) и журнал ходов с очередью хода. Ход обслуживается
+// целиком по нему, изменения пишутся в БД сквозь кэш.
+public final class GameState {
+    // Оценка памяти: игра с игроками, два поля со строками и масками, журнал без ходов
+    public static final int BASE_BYTES = 2048;
+    // Ход: сущность Move, LocalDateTime и ячейка массива журнала
+    public static final int MOVE_BYTES = 120;
+
+    private final GameSession game;
+    // fields[i] - поле с кораблями игрока i (MoveLog.PLAYER1 / PLAYER2), по нему стреляет соперник
+    private final Field[] fields = new Field[2];
+    private final MoveLog moves;
+
+    public GameState(GameSession game, Collection<Field> fields, MoveLog moves) {
+        this.game = game;
+        this.moves = moves;
+        fields.forEach(this::putField);
+    }
+
+    public GameSession getGame() {
+        return game;
+    }
+
+    public Long getGameId() {
+        return game.getId();
+    }
+
+    public MoveLog getMoves() {
+        return moves;
+    }
+
+    // Примерный размер в куче для весов кэша; растёт с числом ходов
+    public int estimatedBytes() {
+        return BASE_BYTES + moves.size() * MOVE_BYTES;
+    }
+
+    public User player(int slot) {
+        return slot == MoveLog.PLAYER1 ? game.getPlayer1() : game.getPlayer2();
+    }
+
+    // MoveLog.PLAYER1 / PLAYER2 или -1, если пользователь не участвует в игре
+    public int slotOf(Long userId) {
+        if (game.getPlayer1() != null && Objects.equals(game.getPlayer1().getId(), userId)) {
+            return MoveLog.PLAYER1;
+        }
+        if (game.getPlayer2() != null && Objects.equals(game.getPlayer2().getId(), userId)) {
+            return MoveLog.PLAYER2;
+        }
+        return -1;
+    }
+
+    public Optional<User> findPlayer(Long userId) {
+        int slot = slotOf(userId);
+        return slot < 0 ? Optional.empty() : Optional.of(player(slot));
+    }
+
+    // Поле игрока slot или null, если он ещё не расставил корабли
+    public Field field(int slot) {
+        return fields[slot];
+    }
+
+    public BitBoard board(int slot) {
+        Field field = fields[slot];
+        return field != null ? field.getBoard() : null;
+    }
+
+    // То же состояние с обновлённой сущностью игры (например, после присоединения второго игрока)
+    GameState withGame(GameSession game) {
+        GameState updated = new GameState(game, List.of(), moves);
+        updated.fields[MoveLog.PLAYER1] = fields[MoveLog.PLAYER1];
+        updated.fields[MoveLog.PLAYER2] = fields[MoveLog.PLAYER2];
+        return updated;
+    }
+
+    // Выстрелы соперника из журнала переносятся на поле: попадания пишутся в БД только в конце хода,
+    // и загруженная из БД маска может отставать от ходов
+    void putField(Field field) {
+        int slot = slotOf(field.getPlayer() != null ? field.getPlayer().getId() : null);
+        if (slot >= 0) {
+            field.applyShots(moves.attackedLo(1 - slot), moves.attackedHi(1 - slot));
+            fields[slot] = field;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Move;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Выравнивание счётчика id ходов в id_sequences по уже записанным ходам. Ходы, вставленные
+// до перехода с IDENTITY, имеют id из AUTO_INCREMENT, и без выравнивания блоки id с ними пересекутся.
+// Выполняется при создании контекста - после DDL Hibernate и до приёма запросов.
+@Component
+@Slf4j
+public class MoveIdSequence implements InitializingBean {
+    static final String SEQUENCE_NAME = "move";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // EntityManagerFactory в зависимостях: к этому моменту Hibernate уже создал таблицы
+    public MoveIdSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        align();
+    }
+
+    // Следующий блок id начнётся выше максимального id в таблице move
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM move", Long.class);
+        long floor = maxId + Move.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update(
+                "UPDATE id_sequences SET next_val = ? WHERE sequence_name = ? AND next_val < ?",
+                floor, SEQUENCE_NAME, floor);
+        if (updated == 0) {
+            Integer rows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM id_sequences WHERE sequence_name = ?", Integer.class, SEQUENCE_NAME);
+            if (rows == null || rows == 0) {
+                jdbcTemplate.update("INSERT INTO id_sequences (sequence_name, next_val) VALUES (?, ?)",
+                        SEQUENCE_NAME, floor);
+                updated = 1;
+            }
+        }
+        if (updated > 0) {
+            log.info("Счётчик id ходов выровнен: следующий блок после {}", maxId);
+        }
+    }
+}
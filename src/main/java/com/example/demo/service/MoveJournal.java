@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Move;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Локальный журнал ходов в файле, отображённом в память: ход записывается сюда до постановки
+// в очередь MoveWriteBehind, поэтому падение процесса между ходом и записью пакета в БД его не теряет.
+// Файл - кольцо записей фиксированной длины: запись с номером seq лежит в ячейке (seq - 1) % capacity.
+// В заголовке - seq контрольной точки, до которого все ходы уже в БД; ячейки до неё переиспользуются.
+@Component
+@Slf4j
+public class MoveJournal {
+    static final int MAGIC = 0x53424A32;   // "SBJ2"
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 40;
+    private static final int CHECKPOINT_OFFSET = 8;
+
+    // Ход из журнала: ссылки на игру и игрока - только id
+    public record Entry(long seq, long gameId, long playerId, int x, int y,
+                       Move.MoveResult result, LocalDateTime createdAt) {
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;          // записей в кольце
+    private long lastSeq;
+    private long checkpoint;
+    private long overflowStart;          // ходов без журнала на начало текущего переполнения, -1 - его нет
+    private final AtomicLong unjournaled = new AtomicLong();
+    private volatile boolean dirty;
+
+    public MoveJournal(@Value("${seabattle.moves.journal.path:data/moves.journal}") String path,
+                       @Value("${seabattle.moves.journal.size-mb:64}") int sizeMb) {
+        this.overflowStart = -1;
+        if (path == null || path.isBlank()) {
+            this.path = null;
+            this.channel = null;
+            this.buffer = null;
+            this.capacity = 0;
+            log.info("Журнал ходов отключён");
+            return;
+        }
+        this.path = Path.of(path);
+        long size = (long) sizeMb << 20;
+        this.capacity = (int) ((size - HEADER_BYTES) / RECORD_BYTES);
+        try {
+            if (this.path.getParent() != null) {
+                Files.createDirectories(this.path.getParent());
+            }
+            this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал ходов " + path, e);
+        }
+        open();
+    }
+
+    public static MoveJournal disabled() {
+        return new MoveJournal("", 0);
+    }
+
+    public boolean isEnabled() {
+        return buffer != null;
+    }
+
+    // Чтение заголовка и поиск конца журнала: после контрольной точки записи идут подряд, seq + 1
+    // в следующей ячейке кольца. В ячейке без нужного seq - пусто или запись прошлого круга
+    private void open() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(CHECKPOINT_OFFSET, 0);
+            buffer.force();
+        }
+        checkpoint = buffer.getLong(CHECKPOINT_OFFSET);
+        lastSeq = checkpoint;
+        while (lastSeq - checkpoint < capacity && buffer.getLong(offset(lastSeq + 1)) == lastSeq + 1) {
+            lastSeq++;
+        }
+        log.info("Журнал ходов {}: контрольная точка {}, последний seq {}, не записано в БД {}",
+                path, checkpoint, lastSeq, lastSeq - checkpoint);
+    }
+
+    // Запись хода; 0, если журнал отключён или заполнен ходами, ещё не дошедшими до БД,
+    // - ход тогда держит только очередь в памяти
+    public synchronized long append(Move move) {
+        if (buffer == null) {
+            return 0;
+        }
+        if (lastSeq - checkpoint == capacity) {
+            if (overflowStart < 0) {
+                overflowStart = unjournaled.get();
+                log.error("Журнал ходов {} заполнен: БД отстаёт на {} ходов, новые ходы не защищены от падения",
+                        path, capacity);
+            }
+            unjournaled.incrementAndGet();
+            return 0;
+        }
+        long seq = lastSeq + 1;
+        int at = offset(seq);
+        // seq пишется последним: ячейка без нужного seq при чтении считается концом журнала
+        buffer.putLong(at + 8, move.getGame() != null && move.getGame().getId() != null ? move.getGame().getId() : 0);
+        buffer.putLong(at + 16, move.getPlayer() != null && move.getPlayer().getId() != null ? move.getPlayer().getId() : 0);
+        buffer.putLong(at + 24, move.getCreatedAt() != null
+                ? move.getCreatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0);
+        buffer.put(at + 32, (byte) move.getX());
+        buffer.put(at + 33, (byte) move.getY());
+        buffer.put(at + 34, (byte) (move.getResult() != null ? move.getResult().ordinal() : -1));
+        buffer.putLong(at, seq);
+        lastSeq = seq;
+        dirty = true;
+        return seq;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    // Ходы, не попавшие в журнал из-за переполнения, с момента запуска
+    public long unjournaled() {
+        return unjournaled.get();
+    }
+
+    // Все ходы до seq включительно записаны в БД: их ячейки освобождаются для новых записей
+    public synchronized void checkpoint(long seq) {
+        if (buffer == null || seq <= checkpoint) {
+            return;
+        }
+        checkpoint = Math.min(seq, lastSeq);
+        buffer.putLong(CHECKPOINT_OFFSET, checkpoint);
+        if (overflowStart >= 0 && lastSeq - checkpoint < capacity) {
+            log.warn("Журнал ходов {} снова принимает записи, ходов без журнала: {}",
+                    path, unjournaled.get() - overflowStart);
+            overflowStart = -1;
+        }
+        dirty = true;
+    }
+
+    // Ходы после контрольной точки: то, что могло не дойти до БД
+    public synchronized List<Entry> pending() {
+        List<Entry> entries = new ArrayList<>();
+        if (buffer == null) {
+            return entries;
+        }
+        for (long seq = checkpoint + 1; seq <= lastSeq; seq++) {
+            int at = offset(seq);
+            byte result = buffer.get(at + 34);
+            long createdAt = buffer.getLong(at + 24);
+            entries.add(new Entry(seq, buffer.getLong(at + 8), buffer.getLong(at + 16),
+                    buffer.get(at + 32), buffer.get(at + 33),
+                    result >= 0 ? Move.MoveResult.values()[result] : null,
+                    createdAt != 0 ? LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAt), ZoneOffset.UTC) : null));
+        }
+        return entries;
+    }
+
+    // Групповая фиксация: один force на все записи с прошлого сброса
+    @Scheduled(fixedDelayString = "${seabattle.moves.journal.sync-interval-ms:20}")
+    public void sync() {
+        if (buffer != null && dirty) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (buffer == null) {
+            return;
+        }
+        sync();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Журнал ходов закрыт с ошибкой: {}", e.getMessage());
+        }
+    }
+
+    private int offset(long seq) {
+        return HEADER_BYTES + (int) ((seq - 1) % capacity) * RECORD_BYTES;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.model.Move;
+import com.example.demo.model.User;
+import com.example.demo.repository.GameSessionRepository;
+import com.example.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Возврат в БД ходов, оставшихся в журнале после падения: они проходят обычную запись MoveWriteBehind
+// (уже записанные отсеиваются), после чего журнал получает контрольную точку. Выполняется при создании
+// контекста, до прогрева кэша - прогрев собирает состояние партий уже с этими ходами.
+@Component
+@Slf4j
+public class MoveJournalRecovery implements InitializingBean {
+    private final MoveJournal journal;
+    private final MoveWriteBehind moveWriteBehind;
+    private final GameSessionRepository gameRepository;
+    private final UserRepository userRepository;
+
+    // MoveIdSequence в зависимостях: счётчик id ходов выровнен до первой вставки
+    public MoveJournalRecovery(MoveJournal journal, MoveWriteBehind moveWriteBehind,
+                               GameSessionRepository gameRepository, UserRepository userRepository,
+                               MoveIdSequence moveIdSequence) {
+        this.journal = journal;
+        this.moveWriteBehind = moveWriteBehind;
+        this.gameRepository = gameRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        recover();
+    }
+
+    // Возвращает число ходов, переданных на запись
+    public int recover() {
+        List<MoveJournal.Entry> entries = journal.pending();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        Set<Long> gameIds = new HashSet<>();
+        Set<Long> playerIds = new HashSet<>();
+        for (MoveJournal.Entry entry : entries) {
+            gameIds.add(entry.gameId());
+            playerIds.add(entry.playerId());
+        }
+        Map<Long, GameSession> games = gameRepository.findAllById(gameIds).stream()
+                .collect(Collectors.toMap(GameSession::getId, Function.identity()));
+        Map<Long, User> players = userRepository.findAllById(playerIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Move> moves = new ArrayList<>(entries.size());
+        for (MoveJournal.Entry entry : entries) {
+            GameSession game = games.get(entry.gameId());
+            User player = players.get(entry.playerId());
+            if (game == null || player == null) {
+                // игра или игрок удалены - ходу некуда вернуться
+                log.warn("Ход из журнала пропущен, нет игры {} или игрока {}", entry.gameId(), entry.playerId());
+                continue;
+            }
+            Move move = new Move();
+            move.setGame(game);
+            move.setPlayer(player);
+            move.setX(entry.x());
+            move.setY(entry.y());
+            move.setResult(entry.result());
+            move.setCreatedAt(entry.createdAt());
+            moves.add(move);
+        }
+        moveWriteBehind.recover(moves);
+        log.info("Из журнала восстановлено ходов: {} из {} за {} мс",
+                moves.size(), entries.size(), (System.nanoTime() - start) / 1_000_000);
+        return moves.size();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.model.Move;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+// Журнал ходов одной игры только на добавление. Пишет один поток за раз (внутри compute кэша),
+// читают без блокировок: снимок - это массив и длина на момент чтения, без копирования.
+// Вместе с ходами хранятся маски обстрелянных каждым игроком клеток и очередь хода.
+public final class MoveLog {
+    public static final int PLAYER1 = 0;
+    public static final int PLAYER2 = 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Клетки, обстрелянные игроком 1 и игроком 2, в раскладке BitBoard
+    private volatile long player1Lo;
+    private volatile long player1Hi;
+    private volatile long player2Lo;
+    private volatile long player2Hi;
+    private volatile int toMove = PLAYER1;
+
+    // Сначала публикуется массив, затем длина; читатель берёт длину, затем массив
+    private volatile Move[] moves;
+    private volatile int size;
+
+    public MoveLog() {
+        moves = new Move[INITIAL_CAPACITY];
+    }
+
+    // Журнал из ходов БД; игрок определяется сравнением с id первого игрока партии
+    public static MoveLog of(Collection<Move> initial, Long player1Id) {
+        MoveLog log = new MoveLog();
+        for (Move move : initial) {
+            boolean first = move.getPlayer() != null && Objects.equals(move.getPlayer().getId(), player1Id);
+            log.append(move, first ? PLAYER1 : PLAYER2);
+        }
+        return log;
+    }
+
+    // Вызывать только под блокировкой записи (compute кэша): писатель у журнала один.
+    // Промах передаёт ход сопернику, попадание и потопление оставляют его стреляющему.
+    public void append(Move move, int player) {
+        int cell = BitBoard.index(move.getX(), move.getY());
+        if (player == PLAYER1) {
+            player1Lo |= BitBoard.bitLo(cell);
+            player1Hi |= BitBoard.bitHi(cell);
+        } else {
+            player2Lo |= BitBoard.bitLo(cell);
+            player2Hi |= BitBoard.bitHi(cell);
+        }
+        toMove = move.getResult() == Move.MoveResult.MISS ? 1 - player : player;
+
+        Move[] current = moves;
+        int n = size;
+        if (n == current.length) {
+            Move[] grown = new Move[n * 2];
+            System.arraycopy(current, 0, grown, 0, n);
+            moves = grown;
+            current = grown;
+        }
+        current[n] = move;
+        size = n + 1;
+    }
+
+    public boolean isAttacked(int player, int cell) {
+        return player == PLAYER1
+                ? BitBoard.test(player1Lo, player1Hi, cell)
+                : BitBoard.test(player2Lo, player2Hi, cell);
+    }
+
+    // Маска клеток, по которым стрелял игрок: младшее и старшее слово
+    public long attackedLo(int player) {
+        return player == PLAYER1 ? player1Lo : player2Lo;
+    }
+
+    public long attackedHi(int player) {
+        return player == PLAYER1 ? player1Hi : player2Hi;
+    }
+
+    // PLAYER1 или PLAYER2; в новой игре первым ходит игрок 1
+    public int toMove() {
+        return toMove;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Move last() {
+        int n = size;
+        return n == 0 ? null : moves[n - 1];
+    }
+
+    // Неизменяемый снимок: последующие добавления в него не попадают
+    public List<Move> snapshot() {
+        int n = size;
+        return n == 0 ? List.of() : new Snapshot(moves, n);
+    }
+
+    private static final class Snapshot extends AbstractList<Move> implements RandomAccess {
+        private final Move[] moves;
+        private final int size;
+
+        Snapshot(Move[] moves, int size) {
+            this.moves = moves;
+            this.size = size;
+        }
+
+        @Override
+        public Move get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return moves[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
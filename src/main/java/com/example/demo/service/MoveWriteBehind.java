@@ -0,0 +1,216 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Move;
+import com.example.demo.model.MoveKey;
+import com.example.demo.repository.MoveRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Отложенная запись ходов в БД: ход попадает в очередь вместе с добавлением в кэш, а пишет их
+// пакетами один фоновый поток - по заполнении пакета или по таймеру. Кэш больше не единственная
+// копия ходов: при вытеснении игры, перед загрузкой игры из БД и при остановке очередь сбрасывается.
+// До очереди ход пишется в MoveJournal, после полного сброса очереди журнал получает контрольную точку.
+// Ход, который записать нельзя в принципе (нет игры или игрока), отбрасывается с записью в лог;
+// ход, не записанный из-за сбоя БД, возвращается в очередь, и до его записи точка не сдвигается.
+@Component
+@Slf4j
+public class MoveWriteBehind {
+    private final Queue<Move> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "move-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object appendLock = new Object();
+    private final MoveRepository moveRepository;
+    private final MoveJournal journal;
+    private final TransactionTemplate transaction;
+    private final int batchSize;
+    private final AtomicLong dropped = new AtomicLong();
+
+    public MoveWriteBehind(MoveRepository moveRepository,
+                           PlatformTransactionManager transactionManager,
+                           MoveJournal journal,
+                           @Value("${seabattle.moves.write-behind.batch-size:50}") int batchSize) {
+        this.moveRepository = moveRepository;
+        this.journal = journal;
+        // своя транзакция: откат запроса не должен откатывать чужие ходы из того же пакета
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+    }
+
+    // Журнал и очередь обновляются вместе: ход с seq до контрольной точки уже точно в очереди
+    public void enqueue(Move move) {
+        synchronized (appendLock) {
+            journal.append(move);
+            queue.offer(move);
+        }
+        if (pending.incrementAndGet() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    // Фоновый сброс без ожидания; повторные запросы до начала сброса схлопываются
+    @Scheduled(fixedDelayString = "${seabattle.moves.write-behind.flush-interval-ms:500}")
+    public void requestFlush() {
+        if (pending.get() > 0 && flushRequested.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    // Сброс с ожиданием: после возврата в БД записаны все ходы, поставленные в очередь до вызова
+    public void flush() {
+        try {
+            writer.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Ошибка записи ходов в БД", e.getCause());
+        }
+    }
+
+    // Ходы из журнала после падения: уже записаны в журнал, повторно туда не пишутся.
+    // Возврат после записи в БД; ходы, которые там уже есть, отсеиваются как обычно
+    public void recover(List<Move> moves) {
+        synchronized (appendLock) {
+            queue.addAll(moves);
+        }
+        pending.addAndGet(moves.size());
+        flush();
+    }
+
+    public int pending() {
+        return pending.get();
+    }
+
+    // Ходы, отброшенные без записи в БД, с момента запуска
+    public long dropped() {
+        return dropped.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        writer.shutdown();
+        log.info("Очередь ходов сброшена при остановке, не записано: {}", pending.get());
+    }
+
+    private void drain() {
+        flushRequested.set(false);
+        long journaled;
+        synchronized (appendLock) {
+            journaled = journal.lastSeq();   // всё до этого seq уже в очереди и будет выбрано ниже
+        }
+        List<Move> retry = new ArrayList<>();
+        List<Move> batch = new ArrayList<>(batchSize);
+        for (Move move = queue.poll(); move != null; move = queue.poll()) {
+            batch.add(move);
+            if (batch.size() == batchSize) {
+                write(batch, retry);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, retry);
+        }
+        if (retry.isEmpty()) {
+            journal.checkpoint(journaled);
+            return;
+        }
+        // БД недоступна: ходы ждут следующего сброса, журнал держит их до записи
+        synchronized (appendLock) {
+            queue.addAll(retry);
+        }
+        pending.addAndGet(retry.size());
+        log.warn("Ходов возвращено в очередь после сбоя записи: {}", retry.size());
+    }
+
+    // Ходы, которые стоит повторить, добавляются в retry; ходы с постоянной ошибкой отбрасываются
+    private void write(List<Move> batch, List<Move> retry) {
+        pending.addAndGet(-batch.size());
+        try {
+            int written = transaction.execute(status -> {
+                List<Move> fresh = withoutStored(batch);
+                moveRepository.saveAll(fresh);
+                return fresh.size();
+            });
+            log.debug("Записано ходов пакетом: {} из {}", written, batch.size());
+        } catch (RuntimeException e) {
+            // пакет откатился целиком: пишем по одному, чтобы один плохой ход не потерял остальные
+            log.warn("Пакет из {} ходов не записан, запись по одному: {}", batch.size(), e.getMessage());
+            for (Move move : batch) {
+                move.setId(null);   // id от откатившейся вставки недействителен
+                try {
+                    transaction.executeWithoutResult(status -> {
+                        if (!withoutStored(List.of(move)).isEmpty()) {
+                            moveRepository.save(move);
+                        }
+                    });
+                } catch (RuntimeException single) {
+                    if (isPermanent(single)) {
+                        dropped.incrementAndGet();
+                        log.error("Ход отброшен, записать его нельзя: {}", move, single);
+                    } else {
+                        log.warn("Ход не записан, повтор при следующем сбросе: {}: {}", move, single.getMessage());
+                        retry.add(move);
+                    }
+                }
+            }
+        }
+    }
+
+    // Нарушение ограничений (игра или игрок удалены) и ошибки вне доступа к БД не исправятся повтором
+    private static boolean isPermanent(RuntimeException e) {
+        return e instanceof DataIntegrityViolationException
+                || !(e instanceof DataAccessException || e instanceof TransactionException);
+    }
+
+    // Отсев ходов, которые уже есть в БД или повторяются в пакете: ключи игр пакета читаются
+    // одним запросом, а не проверкой каждого хода
+    private List<Move> withoutStored(List<Move> batch) {
+        Set<Long> gameIds = new HashSet<>();
+        for (Move move : batch) {
+            if (move.getGame() != null && move.getGame().getId() != null) {
+                gameIds.add(move.getGame().getId());
+            }
+        }
+        Set<MoveKey> seen = gameIds.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(moveRepository.findKeysByGameIdIn(gameIds));
+        List<Move> fresh = new ArrayList<>(batch.size());
+        for (Move move : batch) {
+            MoveKey key = MoveKey.of(move);
+            if (key.gameId() == null || seen.add(key)) {
+                fresh.add(move);
+            } else {
+                log.debug("Ход уже записан, пропуск: {}", move);
+            }
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+// Пользователи читаются сквозь кэш по id и по имени: они не меняются после создания,
+// а ищутся на каждом ходе, присоединении и расстановке. Отсутствующие не кэшируются.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserCacheService {
+    public static final String AI_PLAYER_NAME = "AI Player";
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> userByIdCache;
+    private final Cache<String, User> userByNameCache;
+
+    // ИИ-игрок ищется один раз при старте и дальше берётся из памяти
+    private volatile User aiPlayer;
+
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(userByIdCache.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+
+    public Optional<User> findByName(String name) {
+        return Optional.ofNullable(userByNameCache.get(name, key -> userRepository.findByName(key).orElse(null)));
+    }
+
+    public User getAiPlayer() {
+        User ai = aiPlayer;
+        if (ai == null) {
+            // при старте его могло ещё не быть в БД - ищем при первом обращении
+            ai = findByName(AI_PLAYER_NAME)
+                    .orElseThrow(() -> new RuntimeException("ИИ игрок не найден"));
+            aiPlayer = ai;
+        }
+        return ai;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void resolveAiPlayer() {
+        findByName(AI_PLAYER_NAME).ifPresentOrElse(
+                ai -> {
+                    aiPlayer = ai;
+                    log.info("ИИ игрок загружен: {}", ai.getId());
+                },
+                () -> log.warn("ИИ игрок '{}' не найден при старте", AI_PLAYER_NAME));
+    }
+
+    // Сброс записей пользователя после создания или изменения
+    public void invalidate(User user) {
+        if (user.getId() != null) {
+            userByIdCache.invalidate(user.getId());
+        }
+        if (user.getName() != null) {
+            userByNameCache.invalidate(user.getName());
+            if (AI_PLAYER_NAME.equals(user.getName())) {
+                aiPlayer = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.engine.ai.AiStrategy;
+import com.example.demo.engine.ai.AiStrategyRegistry;
+import com.example.demo.engine.ai.HuntTargetStrategy;
+import com.example.demo.engine.ai.MonteCarloStrategy;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.engine.ai.RandomShotStrategy;
+import com.example.demo.model.GameSession;
+import com.example.demo.model.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Задержка одного хода (SampleTime, с перцентилями) каждой стратегии из реестра в середине партии.
+// Выделение памяти на ход - gc.alloc.rate.norm профилировщика gc, он включён в main().
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AiStrategyBenchmark {
+
+    @Param({"EASY", "NORMAL", "EXPERT"})
+    private GameSession.AiDifficulty difficulty;
+
+    @Param({"hunt", "target"})
+    private String mode;
+
+    private ForkJoinPool pool;
+    private AiStrategy strategy;
+    private Observation observation;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        AiStrategyRegistry registry = new AiStrategyRegistry(List.of(
+                new RandomShotStrategy(),
+                new HuntTargetStrategy(),
+                new MonteCarloStrategy(pool, TimeUnit.MILLISECONDS.toNanos(20), 20000)));
+        strategy = registry.get(difficulty);
+
+        observation = new Observation();
+        observation.record(0, 0, Move.MoveResult.MISS);
+        observation.record(4, 4, Move.MoveResult.MISS);
+        observation.record(7, 2, Move.MoveResult.MISS);
+        observation.record(2, 8, Move.MoveResult.HIT);
+        observation.record(3, 8, Move.MoveResult.SUNK);
+        if ("target".equals(mode)) {
+            observation.record(6, 6, Move.MoveResult.HIT);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int selectShot() {
+        return strategy.selectShot(observation, random);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AiStrategyBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
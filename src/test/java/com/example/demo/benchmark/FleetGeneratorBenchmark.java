@@ -0,0 +1,105 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Расстановок в секунду (Throughput) и распределение задержки с максимумом (SampleTime, p1.00)
+// для FleetGenerator и прежнего перебора случайных клеток из AiService.
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetGeneratorBenchmark {
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Benchmark
+    public BitBoard fleetGenerator() {
+        return FleetGenerator.generate(random);
+    }
+
+    @Benchmark
+    public List<List<String>> legacyRandomPlacement() {
+        return LegacyPlacement.generate(random);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FleetGeneratorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+
+    // Прежняя генерация из AiService, оставлена только для сравнения
+    static final class LegacyPlacement {
+        private LegacyPlacement() {
+        }
+
+        static List<List<String>> generate(SplittableRandom random) {
+            List<List<String>> field = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                field.add(new ArrayList<>(Collections.nCopies(10, "0")));
+            }
+            for (int size : FleetGenerator.FLEET) {
+                placeShip(field, size, random);
+            }
+            return field;
+        }
+
+        private static void placeShip(List<List<String>> field, int size, SplittableRandom random) {
+            boolean placed = false;
+            while (!placed) {
+                boolean horizontal = random.nextBoolean();
+                int x = random.nextInt(10);
+                int y = random.nextInt(10);
+
+                if (canPlaceShip(field, x, y, size, horizontal)) {
+                    for (int i = 0; i < size; i++) {
+                        if (horizontal) {
+                            field.get(y).set(x + i, "1");
+                        } else {
+                            field.get(y + i).set(x, "1");
+                        }
+                    }
+                    placed = true;
+                }
+            }
+        }
+
+        private static boolean canPlaceShip(List<List<String>> field, int x, int y, int size, boolean horizontal) {
+            if (horizontal) {
+                if (x + size > 10) return false;
+                for (int i = x - 1; i <= x + size; i++) {
+                    for (int j = y - 1; j <= y + 1; j++) {
+                        if (i >= 0 && i < 10 && j >= 0 && j < 10 && field.get(j).get(i).equals("1")) {
+                            return false;
+                        }
+                    }
+                }
+            } else {
+                if (y + size > 10) return false;
+                for (int i = y - 1; i <= y + size; i++) {
+                    for (int j = x - 1; j <= x + 1; j++) {
+                        if (j >= 0 && j < 10 && i >= 0 && i < 10 && field.get(i).get(j).equals("1")) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
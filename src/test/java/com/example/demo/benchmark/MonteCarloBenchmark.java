@@ -0,0 +1,80 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.engine.ai.MonteCarloStrategy;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.model.Move;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Согласованных расстановок в секунду у MonteCarloStrategy в зависимости от числа ядер пула.
+// Один вызов - один ход "эксперта" с бюджетом 20 мс; samples/attempts - счётчики за секунду.
+// По samples на ход видно, сколько одновременных игр с "экспертом" выдержит узел.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonteCarloBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"hunt", "target"})
+    private String mode;
+
+    private ForkJoinPool pool;
+    private MonteCarloStrategy strategy;
+    private Observation observation;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long samples;
+        public long attempts;
+    }
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        strategy = new MonteCarloStrategy(pool, TimeUnit.MILLISECONDS.toNanos(20), Integer.MAX_VALUE);
+        observation = new Observation();
+        // середина партии: несколько промахов, потопленный 2-палубный и, для добивания, одно попадание
+        observation.record(0, 0, Move.MoveResult.MISS);
+        observation.record(4, 4, Move.MoveResult.MISS);
+        observation.record(7, 2, Move.MoveResult.MISS);
+        observation.record(2, 8, Move.MoveResult.HIT);
+        observation.record(3, 8, Move.MoveResult.SUNK);
+        if ("target".equals(mode)) {
+            observation.record(6, 6, Move.MoveResult.HIT);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public MonteCarloStrategy.Occupancy move(Counters counters) {
+        MonteCarloStrategy.Occupancy occupancy = strategy.sample(observation, random.nextLong());
+        counters.samples += occupancy.samples();
+        counters.attempts += occupancy.attempts();
+        return occupancy;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MonteCarloBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.PlacementCheck;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Сравнение однопроходного FleetValidator с прежней парой isValidShipPlacement + checkShipSpacing.
+// Запуск: mvn test-compile, затем main() из IDE или
+// java -cp target/test-classes:<classpath теста> com.example.demo.benchmark.PlacementValidationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlacementValidationBenchmark {
+
+    @Param({"valid", "touching"})
+    private String layout;
+
+    private List<List<String>> field;
+
+    @Setup
+    public void setUp() {
+        String cells = "valid".equals(layout)
+                ? "1111001100" + "0000000000" + "1110010000" + "0000000000" + "1110010000"
+                + "0000000000" + "1100010000" + "0000000000" + "1100010000" + "0000000000"
+                : "1111001100" + "0000000010" + "1110010000" + "0000000000" + "1110010000"
+                + "0000000000" + "1100010000" + "0000000000" + "1100010000" + "0000000000";
+        field = new ArrayList<>();
+        for (int y = 0; y < 10; y++) {
+            List<String> row = new ArrayList<>();
+            for (int x = 0; x < 10; x++) {
+                row.add(String.valueOf(cells.charAt(y * 10 + x)));
+            }
+            field.add(row);
+        }
+    }
+
+    @Benchmark
+    public PlacementCheck fleetValidator() {
+        return FleetValidator.validate(field);
+    }
+
+    @Benchmark
+    public boolean legacyPair() {
+        return LegacyPlacementCheck.isValidShipPlacement(field) && LegacyPlacementCheck.checkShipSpacing(field);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PlacementValidationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+
+    // Прежняя реализация проверок из GameService, оставлена только для сравнения
+    static final class LegacyPlacementCheck {
+        private LegacyPlacementCheck() {
+        }
+
+        static boolean checkShipSpacing(List<List<String>> field) {
+            boolean[][] visited = new boolean[10][10];
+            List<Set<Point>> ships = new ArrayList<>();
+
+            for (int y = 0; y < 10; y++) {
+                for (int x = 0; x < 10; x++) {
+                    if (field.get(y).get(x).equals("1") && !visited[y][x]) {
+                        Set<Point> ship = new HashSet<>();
+                        discoverShip(field, x, y, visited, ship);
+                        ships.add(ship);
+                    }
+                }
+            }
+
+            for (Set<Point> currentShip : ships) {
+                for (Point p : currentShip) {
+                    for (int dy = -1; dy <= 1; dy++) {
+                        for (int dx = -1; dx <= 1; dx++) {
+                            if (dx == 0 && dy == 0) continue;
+                            int nx = p.x + dx;
+                            int ny = p.y + dy;
+                            if (nx >= 0 && nx < 10 && ny >= 0 && ny < 10
+                                    && field.get(ny).get(nx).equals("1")
+                                    && !currentShip.contains(new Point(nx, ny))) {
+                                return false;
+                            }
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+
+        static boolean isValidShipPlacement(List<List<String>> field) {
+            if (field.size() != 10 || field.stream().anyMatch(row -> row.size() != 10)) {
+                return false;
+            }
+
+            Map<Integer, Integer> shipCounts = new HashMap<>();
+            boolean[][] visited = new boolean[10][10];
+            int totalShips = 0;
+
+            for (int y = 0; y < 10; y++) {
+                for (int x = 0; x < 10; x++) {
+                    if (field.get(y).get(x).equals("1") && !visited[y][x]) {
+                        Set<Point> ship = new HashSet<>();
+                        discoverShip(field, x, y, visited, ship);
+                        shipCounts.put(ship.size(), shipCounts.getOrDefault(ship.size(), 0) + 1);
+                        totalShips++;
+                    }
+                }
+            }
+
+            if (totalShips != 10) {
+                return false;
+            }
+            return shipCounts.getOrDefault(4, 0) == 1 &&
+                    shipCounts.getOrDefault(3, 0) == 2 &&
+                    shipCounts.getOrDefault(2, 0) == 3 &&
+                    shipCounts.getOrDefault(1, 0) == 4;
+        }
+
+        private static void discoverShip(List<List<String>> field, int x, int y,
+                                         boolean[][] visited, Set<Point> ship) {
+            if (x < 0 || x >= 10 || y < 0 || y >= 10 ||
+                    !field.get(y).get(x).equals("1") || visited[y][x]) {
+                return;
+            }
+            visited[y][x] = true;
+            ship.add(new Point(x, y));
+            discoverShip(field, x + 1, y, visited, ship);
+            discoverShip(field, x - 1, y, visited, ship);
+            discoverShip(field, x, y + 1, visited, ship);
+            discoverShip(field, x, y - 1, visited, ship);
+        }
+
+        private record Point(int x, int y) {
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.service.GameState;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    // без явного размера кэш наблюдений ИИ вмещает столько игр, сколько кэш игр?
+    @Test
+    void aiObservationCache_ShouldFollowGameStateCache_WhenSizeNotSet() {
+        Cache<Long, Observation> cache = new CacheConfig()
+                .aiObservationCache(0, 64L * GameState.BASE_BYTES, Duration.ofHours(5));
+
+        assertEquals(64L, maximum(cache));
+    }
+
+    // явный размер из настроек имеет приоритет?
+    @Test
+    void aiObservationCache_ShouldUseConfiguredSize() {
+        Cache<Long, Observation> cache = new CacheConfig()
+                .aiObservationCache(500, 64L * GameState.BASE_BYTES, Duration.ofHours(5));
+
+        assertEquals(500L, maximum(cache));
+    }
+
+    private static long maximum(Cache<Long, Observation> cache) {
+        return cache.policy().eviction().orElseThrow().getMaximum();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class L2CacheConfigTest {
+
+    // каждый регион из настроек создаётся со своим размером и временем жизни, повторный запуск не падает?
+    @Test
+    void hibernateCacheManager_ShouldCreateConfiguredRegions() {
+        L2CacheConfig config = new L2CacheConfig();
+        L2CacheConfig.L2CacheProperties properties = new L2CacheConfig.L2CacheProperties(Map.of(
+                "users", new L2CacheConfig.L2CacheProperties.Region(10, Duration.ofMinutes(5)),
+                "default-update-timestamps-region", new L2CacheConfig.L2CacheProperties.Region(100, null)));
+
+        config.hibernateCacheManager(properties);
+        CacheManager cacheManager = config.hibernateCacheManager(properties);
+        try {
+            Cache<Object, Object> users = cacheManager.getCache("users");
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<Object, Object> usersConfig = users.getConfiguration(CaffeineConfiguration.class);
+            @SuppressWarnings("unchecked")
+            CaffeineConfiguration<Object, Object> timestampsConfig = cacheManager
+                    .getCache("default-update-timestamps-region").getConfiguration(CaffeineConfiguration.class);
+
+            assertEquals(OptionalLong.of(10), usersConfig.getMaximumSize());
+            assertEquals(OptionalLong.of(Duration.ofMinutes(5).toNanos()), usersConfig.getExpireAfterWrite());
+            assertTrue(timestampsConfig.getExpireAfterWrite().isEmpty());
+            assertNull(cacheManager.getCache("games"));
+        } finally {
+            cacheManager.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.config;
+
+import com.example.demo.service.AiFleetPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsConfigTest {
+
+    // попадания и промахи запаса расстановок ИИ видны в Micrometer?
+    @Test
+    void aiFleetPoolMetrics_ShouldExposeHitsAndMisses() {
+        AiFleetPool pool = new AiFleetPool(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new MetricsConfig().aiFleetPoolMetrics(pool).bindTo(registry);
+
+        pool.take();        // запас пуст - промах
+        pool.refill();
+        pool.take();        // из запаса - попадание
+
+        assertEquals(1.0, registry.get("seabattle.ai.fleet.pool.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("seabattle.ai.fleet.pool.misses").functionCounter().count());
+        assertEquals(0.0, registry.get("seabattle.ai.fleet.pool.size").gauge().value());
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.engine;
+
+import com.example.demo.model.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitBoardTest {
+
+    // 4-палубный в первой строке, 1-палубный в последней клетке поля
+    private static final String FIELD = "1111000000" + String.join("", Collections.nCopies(89, "0")) + "1";
+
+    // строка поля переводится в маски и обратно без потерь?
+    @Test
+    void fromString_ShouldRoundTrip() {
+        String field = "2111000000" + String.join("", Collections.nCopies(89, "0")) + "1";
+
+        BitBoard board = BitBoard.fromString(field);
+
+        assertEquals(field, board.toFieldString());
+        assertTrue(board.hasShip(0, 0));
+        assertTrue(board.isShot(0, 0));
+        assertTrue(board.hasShip(9, 9));
+        assertEquals(1, board.cell(9, 9));
+        assertEquals(0, board.cell(5, 5));
+    }
+
+    // строка неверной длины отклоняется?
+    @Test
+    void fromString_ShouldThrow_WhenLengthIsWrong() {
+        assertThrows(IllegalArgumentException.class, () -> BitBoard.fromString("101"));
+    }
+
+    // выстрел даёт промах, попадание и потопление по порядку?
+    @Test
+    void fire_ShouldReportMissHitAndSunk() {
+        BitBoard board = BitBoard.fromString(FIELD);
+
+        assertEquals(Move.MoveResult.MISS, board.fire(5, 5));
+        assertEquals(Move.MoveResult.HIT, board.fire(0, 0));
+        assertEquals(Move.MoveResult.HIT, board.fire(2, 0));
+        assertEquals(Move.MoveResult.HIT, board.fire(1, 0));
+        assertEquals(Move.MoveResult.SUNK, board.fire(3, 0));
+        assertFalse(board.allShipsSunk());
+    }
+
+    // игра заканчивается, когда подбита последняя палуба в старшем слове?
+    @Test
+    void allShipsSunk_ShouldBeTrue_AfterLastDeckInHighWord() {
+        BitBoard board = BitBoard.fromString(FIELD);
+        for (int x = 0; x < 4; x++) {
+            board.fire(x, 0);
+        }
+
+        assertEquals(Move.MoveResult.SUNK, board.fire(9, 9));
+        assertTrue(board.allShipsSunk());
+    }
+
+    // промах не попадает в строку поля?
+    @Test
+    void toFieldString_ShouldNotStoreMisses() {
+        BitBoard board = BitBoard.fromString(FIELD);
+        board.fire(5, 5);
+
+        assertEquals(FIELD, board.toFieldString());
+    }
+
+    // 13-байтовая маска кораблей переводится в поле и обратно?
+    @Test
+    void fromShipMask_ShouldRoundTrip() {
+        BitBoard board = BitBoard.fromString(FIELD);
+
+        byte[] mask = board.toShipMask();
+        BitBoard decoded = BitBoard.fromShipMask(mask);
+
+        assertEquals(BitBoard.MASK_BYTES, mask.length);
+        assertEquals(FIELD, decoded.toFieldString());
+    }
+
+    // маска неверной длины или с лишними битами отклоняется?
+    @Test
+    void fromShipMask_ShouldThrow_WhenMaskIsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> BitBoard.fromShipMask(new byte[12]));
+
+        byte[] mask = new byte[BitBoard.MASK_BYTES];
+        mask[12] = (byte) 0x10;   // 101-я клетка
+        assertThrows(IllegalArgumentException.class, () -> BitBoard.fromShipMask(mask));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetGeneratorTest {
+
+    // каждая сгенерированная расстановка проходит проверку флота?
+    @Test
+    void generate_ShouldProduceValidFleets() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            BitBoard board = FleetGenerator.generate(random);
+            assertEquals(PlacementCheck.VALID, FleetValidator.validate(board), board.toString());
+        }
+    }
+
+    // занятые клетки не используются?
+    @Test
+    void generate_ShouldAvoidBlockedCells() {
+        Random random = new Random(7);
+        long blockedLo = 0xFFFFFFFFL;   // первые три строки и часть четвёртой
+        for (int i = 0; i < 200; i++) {
+            BitBoard board = FleetGenerator.generate(random, blockedLo, 0);
+            assertEquals(0, board.getShipsLo() & blockedLo);
+            assertEquals(PlacementCheck.VALID, FleetValidator.validate(board));
+        }
+    }
+
+    // таблица положений содержит все варианты и корректные ореолы?
+    @Test
+    void placements_ShouldCoverAllPositions() {
+        assertEquals(100, ShipPlacements.of(1).size());
+        assertEquals(180, ShipPlacements.of(2).size());
+        assertEquals(140, ShipPlacements.of(4).size());
+
+        // однопалубный в углу: сама клетка и три соседние
+        ShipPlacements singles = ShipPlacements.of(1);
+        assertEquals(1, Long.bitCount(singles.cellsLo(0)));
+        assertEquals(4, Long.bitCount(singles.haloLo(0)));
+    }
+
+    // на поле без места генерация завершается ошибкой, а не зависает?
+    @Test
+    void generate_ShouldFail_WhenFleetDoesNotFit() {
+        assertThrows(IllegalStateException.class,
+                () -> FleetGenerator.generate(new Random(1), -1L, 0));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetValidatorTest {
+
+    // полный флот по правилам: 1x4, 2x3, 3x2, 4x1
+    private static final String VALID =
+            "1111001100" +
+            "0000000000" +
+            "1110010000" +
+            "0000000000" +
+            "1110010000" +
+            "0000000000" +
+            "1100010000" +
+            "0000000000" +
+            "1100010000" +
+            "0000000000";
+
+    private static List<List<String>> rows(String field) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int y = 0; y < 10; y++) {
+            List<String> row = new ArrayList<>();
+            for (int x = 0; x < 10; x++) {
+                row.add(String.valueOf(field.charAt(y * 10 + x)));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static PlacementCheck check(String field) {
+        return FleetValidator.validate(BitBoard.fromString(field));
+    }
+
+    // правильная расстановка принимается в обоих форматах?
+    @Test
+    void validate_ShouldAcceptFullFleet() {
+        assertEquals(PlacementCheck.VALID, check(VALID));
+        assertEquals(PlacementCheck.VALID, FleetValidator.validate(rows(VALID)));
+    }
+
+    // поле не 10x10 отклоняется?
+    @Test
+    void validate_ShouldRejectWrongSize() {
+        List<List<String>> field = rows(VALID);
+        field.get(3).remove(0);
+        assertEquals(PlacementCheck.WRONG_SIZE, FleetValidator.validate(field));
+        assertEquals(PlacementCheck.WRONG_SIZE, FleetValidator.validate(field.subList(0, 9)));
+    }
+
+    // посторонние значения клеток отклоняются?
+    @Test
+    void validate_ShouldRejectInvalidCell() {
+        List<List<String>> field = rows(VALID);
+        field.get(9).set(9, "x");
+        assertEquals(PlacementCheck.INVALID_CELL, FleetValidator.validate(field));
+    }
+
+    // касание углами отклоняется?
+    @Test
+    void validate_ShouldRejectDiagonalTouch() {
+        String field = VALID.substring(0, 18) + "1" + VALID.substring(19);   // (8,1) касается (7,0)
+        assertEquals(PlacementCheck.SHIPS_TOUCHING, check(field));
+    }
+
+    // изогнутый корабль отклоняется?
+    @Test
+    void validate_ShouldRejectBentShip() {
+        String field = VALID.substring(0, 10) + "1" + VALID.substring(11);   // (0,1) под 4-палубным
+        assertEquals(PlacementCheck.SHIP_NOT_STRAIGHT, check(field));
+    }
+
+    // неверный состав флота отклоняется?
+    @Test
+    void validate_ShouldRejectWrongFleet() {
+        String fiveDecks = "1111100000" + String.join("", Collections.nCopies(90, "0"));
+        assertEquals(PlacementCheck.WRONG_FLEET, check(fiveDecks));
+
+        String missingBoat = VALID.substring(0, 85) + "0" + VALID.substring(86);
+        assertEquals(PlacementCheck.WRONG_FLEET, check(missingBoat));
+    }
+}
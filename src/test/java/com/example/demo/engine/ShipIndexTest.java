@@ -0,0 +1,51 @@
+package com.example.demo.engine;
+
+import com.example.demo.model.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShipIndexTest {
+
+    // 3-палубный по вертикали, 2-палубный по горизонтали и один подбитый 1-палубный
+    private static final String FIELD =
+            "1000000000" +
+            "1000011000" +
+            "1000000000" +
+            "0000000002" +
+            String.join("", Collections.nCopies(60, "0"));
+
+    // каждый корабль получает свой номер и длину?
+    @Test
+    void build_ShouldAssignShipIdsAndLengths() {
+        ShipIndex index = ShipIndex.build(BitBoard.fromString(FIELD));
+
+        assertEquals(3, index.shipCount());
+        assertEquals(2, index.shipsAlive());    // 1-палубный уже потоплен
+        int vertical = index.shipAt(BitBoard.index(0, 0));
+        assertEquals(vertical, index.shipAt(BitBoard.index(0, 2)));
+        assertEquals(3, index.length(vertical));
+        assertEquals(2, index.length(index.shipAt(BitBoard.index(5, 1))));
+        assertEquals(0, index.shipAt(BitBoard.index(1, 0)));
+        assertTrue(index.isSunk(BitBoard.index(9, 3)));
+    }
+
+    // потопление определяется по счётчику палуб, повторный выстрел не учитывается?
+    @Test
+    void fire_ShouldCountDownDecks() {
+        BitBoard board = BitBoard.fromString(FIELD);
+
+        assertEquals(Move.MoveResult.HIT, board.fire(5, 1));
+        assertEquals(Move.MoveResult.HIT, board.fire(5, 1));
+        assertEquals(Move.MoveResult.SUNK, board.fire(6, 1));
+        assertEquals(1, board.getShipIndex().shipsAlive());
+        assertFalse(board.allShipsSunk());
+
+        board.fire(0, 0);
+        board.fire(0, 1);
+        assertEquals(Move.MoveResult.SUNK, board.fire(0, 2));
+        assertTrue(board.allShipsSunk());
+    }
+}
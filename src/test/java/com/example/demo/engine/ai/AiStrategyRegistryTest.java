@@ -0,0 +1,48 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.model.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiStrategyRegistryTest {
+
+    private final RandomShotStrategy easy = new RandomShotStrategy();
+    private final HuntTargetStrategy normal = new HuntTargetStrategy();
+
+    // стратегия выбирается по уровню, игра без уровня получает NORMAL?
+    @Test
+    void get_ShouldReturnStrategyByDifficulty() {
+        AiStrategyRegistry registry = new AiStrategyRegistry(List.of(easy, normal));
+
+        assertSame(easy, registry.get(GameSession.AiDifficulty.EASY));
+        assertSame(normal, registry.get(GameSession.AiDifficulty.NORMAL));
+        assertSame(normal, registry.get(null));
+        assertThrows(IllegalArgumentException.class, () -> registry.get(GameSession.AiDifficulty.EXPERT));
+    }
+
+    // две стратегии на один уровень отклоняются?
+    @Test
+    void constructor_ShouldRejectDuplicateDifficulty() {
+        assertThrows(IllegalStateException.class,
+                () -> new AiStrategyRegistry(List.of(normal, new HuntTargetStrategy())));
+    }
+
+    // "новичок" не стреляет дважды в одну клетку и останавливается, когда поле отстреляно?
+    @Test
+    void randomShot_ShouldPickEachCellOnce() {
+        Observation observation = new Observation();
+        Random random = new Random(5);
+
+        for (int shot = 0; shot < 100; shot++) {
+            int cell = easy.selectShot(observation, random);
+            assertFalse(observation.isShot(cell), "Повторный выстрел: " + cell);
+            observation.record(cell % 10, cell / 10, Move.MoveResult.MISS);
+        }
+        assertEquals(-1, easy.selectShot(observation, random));
+    }
+}
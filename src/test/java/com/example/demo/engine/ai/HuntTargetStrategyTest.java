@@ -0,0 +1,74 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.model.Move;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HuntTargetStrategyTest {
+
+    private final HuntTargetStrategy strategy = new HuntTargetStrategy();
+
+    // после попадания добивается соседняя по горизонтали или вертикали клетка?
+    @Test
+    void selectShot_ShouldTargetNeighbour_AfterHit() {
+        Observation observation = new Observation();
+        observation.record(5, 5, Move.MoveResult.HIT);
+
+        int cell = strategy.selectShot(observation, new Random(1));
+
+        int x = cell % 10;
+        int y = cell / 10;
+        assertEquals(1, Math.abs(x - 5) + Math.abs(y - 5));
+    }
+
+    // после двух попаданий в ряд стрельба продолжается по той же линии?
+    @Test
+    void selectShot_ShouldFollowLine_AfterTwoHits() {
+        Observation observation = new Observation();
+        observation.record(4, 3, Move.MoveResult.HIT);
+        observation.record(5, 3, Move.MoveResult.HIT);
+
+        int cell = strategy.selectShot(observation, new Random(1));
+
+        assertEquals(3, cell / 10);
+        assertTrue(cell % 10 == 3 || cell % 10 == 6);
+    }
+
+    // ореол потопленного корабля и промахи не обстреливаются?
+    @Test
+    void selectShot_ShouldSkipSunkHalo() {
+        Observation observation = new Observation();
+        observation.record(0, 0, Move.MoveResult.SUNK);
+        Random random = new Random(3);
+
+        for (int i = 0; i < 50; i++) {
+            int cell = strategy.selectShot(observation, random);
+            assertFalse(cell == 1 || cell == 10 || cell == 11, "Выстрел в ореол: " + cell);
+            observation.record(cell % 10, cell / 10, Move.MoveResult.MISS);
+        }
+        assertEquals(3, observation.remaining(1));
+    }
+
+    // стратегия топит флот заметно быстрее случайной стрельбы (~95 выстрелов)?
+    @Test
+    void selectShot_ShouldSinkFleetInFewShots() {
+        Random random = new Random(11);
+        int games = 100;
+        int totalShots = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard board = FleetGenerator.generate(random);
+            Observation observation = new Observation();
+            while (!board.allShipsSunk()) {
+                int cell = strategy.selectShot(observation, random);
+                observation.record(cell % 10, cell / 10, board.fire(cell % 10, cell / 10));
+                totalShots++;
+            }
+        }
+        assertTrue(totalShots / games < 65, "Среднее число выстрелов: " + totalShots / games);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.engine.ai;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.model.Move;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloStrategyTest {
+
+    private static ForkJoinPool pool;
+    private static MonteCarloStrategy strategy;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(2);
+        strategy = new MonteCarloStrategy(pool, TimeUnit.MILLISECONDS.toNanos(20), 2000);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // соседи попадания занимаются кораблями чаще углов и дальних клеток?
+    @Test
+    void sample_ShouldFavourNeighbours_AfterHit() {
+        Observation observation = new Observation();
+        observation.record(5, 5, Move.MoveResult.HIT);
+
+        int[] counts = strategy.sample(observation, 7).counts();
+
+        assertEquals(0, counts[55]);    // обстрелянные клетки не считаются
+        assertEquals(0, counts[44]);    // угол попадания не может быть занят
+        for (int neighbour : new int[]{45, 54, 56, 65}) {
+            assertTrue(counts[neighbour] > counts[0], "Клетка " + neighbour + ": " + counts[neighbour]);
+        }
+    }
+
+    // сэмплирование укладывается в бюджет времени хода?
+    @Test
+    void sample_ShouldRespectTimeBudget() {
+        MonteCarloStrategy unlimited = new MonteCarloStrategy(pool, TimeUnit.MILLISECONDS.toNanos(20), Integer.MAX_VALUE);
+        unlimited.sample(new Observation(), 1);    // прогрев потоков пула и таблиц положений
+
+        long start = System.nanoTime();
+        MonteCarloStrategy.Occupancy occupancy = unlimited.sample(new Observation(), 3);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(occupancy.samples() > 0);
+        assertTrue(elapsedMs < 200, "Сэмплирование заняло " + elapsedMs + " мс");
+    }
+
+    // "эксперт" топит флот не хуже охоты/добивания?
+    @Test
+    void selectShot_ShouldSinkFleetInFewShots() {
+        Random random = new Random(11);
+        int games = 10;
+        int totalShots = 0;
+        for (int game = 0; game < games; game++) {
+            BitBoard board = FleetGenerator.generate(random);
+            Observation observation = new Observation();
+            while (!board.allShipsSunk()) {
+                int cell = strategy.selectShot(observation, random);
+                observation.record(cell % 10, cell / 10, board.fire(cell % 10, cell / 10));
+                totalShots++;
+            }
+        }
+        assertTrue(totalShots / games < 65, "Среднее число выстрелов: " + totalShots / games);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.engine.sim;
+
+import com.example.demo.engine.ai.AiStrategy;
+import com.example.demo.engine.ai.HuntTargetStrategy;
+import com.example.demo.engine.ai.RandomShotStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SelfPlaySimulatorTest {
+
+    // партия доходит до конца, победитель делает не меньше 20 выстрелов (по числу палуб)?
+    @Test
+    void play_ShouldFinishWithWinner() {
+        SelfPlay.Result result = SelfPlay.play(new HuntTargetStrategy(), new HuntTargetStrategy(), new SplittableRandom(1));
+
+        assertTrue(result.winner() == 0 || result.winner() == 1);
+        assertTrue(result.winnerShots() >= 20 && result.winnerShots() <= 100);
+    }
+
+    // все партии сыграны, охота/добивание почти всегда обыгрывает случайную стрельбу?
+    @Test
+    void run_ShouldReportWinRates() {
+        List<AiStrategy> strategies = List.of(new RandomShotStrategy(), new HuntTargetStrategy());
+
+        SelfPlaySimulator.Report report = new SelfPlaySimulator(strategies, 2).run(300, 42);
+
+        assertEquals(900, report.games());    // пары 0-0, 0-1, 1-1
+        assertTrue(report.winRate(1, 0) > 0.9, "Доля побед: " + report.winRate(1, 0));
+        assertEquals(1.0, report.winRate(0, 1) + report.winRate(1, 0), 1e-9);
+        assertTrue(report.averageShotsToWin(1) < report.averageShotsToWin(0));
+        assertTrue(report.gamesPerSecond() > 0);
+    }
+}
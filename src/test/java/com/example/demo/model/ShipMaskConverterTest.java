@@ -0,0 +1,50 @@
+package com.example.demo.model;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShipMaskConverterTest {
+
+    private final ShipMaskConverter converter = new ShipMaskConverter();
+
+    // расстановка переводится в 13 байт столбца и обратно без потерь, выстрелы в столбец не попадают?
+    @Test
+    void convert_ShouldRoundTripPlacement() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            BitBoard board = FleetGenerator.generate(random);
+            board.fire(9, 9);
+
+            byte[] column = converter.convertToDatabaseColumn(board);
+            BitBoard restored = converter.convertToEntityAttribute(column);
+
+            assertEquals(BitBoard.MASK_BYTES, column.length);
+            assertEquals(board.getShipsLo(), restored.getShipsLo());
+            assertEquals(board.getShipsHi(), restored.getShipsHi());
+            assertEquals(0, restored.getShotsLo() | restored.getShotsHi());
+        }
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    // поле собирается из расстановки и маски попаданий, строка для API та же, что раньше хранилась в БД?
+    @Test
+    void field_ShouldRebuildBoardFromPlacementAndHits() {
+        String legacy = "2111000000" + "0".repeat(89) + "1";
+        Field field = new Field();
+        field.setShipField(legacy);
+
+        Field loaded = new Field();
+        loaded.setPlacement(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(field.getPlacement())));
+        loaded.setHitsLo(field.getHitsLo());
+        loaded.setHitsHi(field.getHitsHi());
+
+        assertEquals(legacy, loaded.getShipField());
+        assertEquals(1L, loaded.getHitsLo());
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.PlacementCheck;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiFleetPoolTest {
+
+    // пополнение заполняет запас до ёмкости и не превышает её?
+    @Test
+    void refill_ShouldFillUpToCapacity() {
+        AiFleetPool pool = new AiFleetPool(8);
+
+        pool.refill();
+        pool.refill();
+
+        assertEquals(8, pool.size());
+    }
+
+    // расстановка из запаса считается попаданием?
+    @Test
+    void take_ShouldCountHit_WhenPoolHasLayouts() {
+        AiFleetPool pool = new AiFleetPool(2);
+        pool.refill();
+
+        BitBoard board = pool.take();
+
+        assertEquals(PlacementCheck.VALID, FleetValidator.validate(board));
+        assertEquals(1, pool.hits());
+        assertEquals(0, pool.misses());
+        assertEquals(1, pool.size());
+    }
+
+    // пустой запас не мешает получить расстановку?
+    @Test
+    void take_ShouldGenerateInline_WhenPoolIsEmpty() {
+        AiFleetPool pool = new AiFleetPool(2);
+
+        BitBoard board = pool.take();
+
+        assertEquals(PlacementCheck.VALID, FleetValidator.validate(board));
+        assertEquals(0, pool.hits());
+        assertEquals(1, pool.misses());
+    }
+}
@@ -1,20 +1,30 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.FleetGenerator;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.PlacementCheck;
+import com.example.demo.engine.ai.AiStrategyRegistry;
+import com.example.demo.engine.ai.HuntTargetStrategy;
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.engine.ai.RandomShotStrategy;
 import com.example.demo.model.*;
 import com.example.demo.repository.FieldRepository;
-import com.example.demo.repository.MoveRepository;
 import com.example.demo.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +37,19 @@ public class AiServiceTest {
     @Mock
     private FieldRepository fieldRepository;
 
+    @Mock
+    private AiFleetPool aiFleetPool;
+
+    @Mock
+    private GameCacheService gameCacheService;
+
+    @Mock
+    private GameLogicService gameLogicService;
+
+    @Spy
+    private AiStrategyRegistry strategies =
+            new AiStrategyRegistry(List.of(new RandomShotStrategy(), new HuntTargetStrategy()));
+
     @InjectMocks    // создаем экземпляр тестируемого сервиса
     private AiService aiService;
 
@@ -55,60 +78,60 @@ public class AiServiceTest {
     // корректные сохранения сгенерированного поля ИИ в базу данных?
     @Test
     void setupAiShips_ShouldSaveValidField() {
+        when(aiFleetPool.take()).thenReturn(FleetGenerator.generate(new Random()));
         aiService.setupAiShips(game, aiPlayer);
         // проверяем, что поле сохранилось
         verify(fieldRepository).save(any(Field.class));
     }
 
-    // генерация кораблей корректна?
+    // ИИ сохраняет расстановку, проходящую ту же проверку, что и расстановка игрока?
     @Test
-    void generateRandomShipPlacement_ShouldReturnValidField() {
-        // генерируем корабли на поле
-        List<List<String>> field = aiService.generateRandomShipPlacement();
-
-        assertNotNull(field); // поле не должно быть пустым
-        assertEquals(10, field.size()); // должно быть 10 строк
-        for (List<String> row : field) {
-            assertEquals(10, row.size()); // должно быть 10 клеток
-        }
+    void setupAiShips_ShouldSaveFleetPassingValidation() {
+        when(aiFleetPool.take()).thenReturn(FleetGenerator.generate(new Random()));
+        aiService.setupAiShips(game, aiPlayer);
+
+        ArgumentCaptor<Field> saved = ArgumentCaptor.forClass(Field.class);
+        verify(fieldRepository).save(saved.capture());
+        assertEquals(aiPlayer, saved.getValue().getPlayer());
+        assertEquals(PlacementCheck.VALID, FleetValidator.validate(saved.getValue().getBoard()));
     }
 
-    // нельзя расположить корабли вне поля?
+    // после своего попадания ИИ стреляет рядом с подбитой палубой и продолжает ход после попадания?
     @Test
-    void canPlaceShip_ShouldReturnFalse_WhenShipOutOfBounds() {
-        // пустое поле
-        List<List<String>> field = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            field.add(new ArrayList<>(Collections.nCopies(10, "0")));
-        }
-        // проверка размещения корабля за границами поля
-        assertFalse(aiService.canPlaceShip(field, 8, 0, 3, true)); // Горизонтальный за границей
-        assertFalse(aiService.canPlaceShip(field, 0, 8, 3, false)); // Вертикальный за границей
+    void makeAiMoves_ShouldFinishOffHitShip() {
+        Move hit = new Move();
+        hit.setPlayer(aiPlayer);
+        hit.setX(4);
+        hit.setY(4);
+        hit.setResult(Move.MoveResult.HIT);
+        when(gameCacheService.getCachedMoves(game.getId())).thenReturn(List.of(hit));
+        when(gameCacheService.getAiObservation(eq(game.getId()), any()))
+                .thenAnswer(inv -> inv.<Function<Long, Observation>>getArgument(1).apply(game.getId()));
+        when(gameLogicService.makeMove(eq(game), eq(aiPlayer), anyInt(), anyInt()))
+                .thenReturn(Move.MoveResult.HIT, Move.MoveResult.MISS);
+
+        List<AiService.MoveResultWithCoords> moves = aiService.makeAiMoves(game);
+
+        assertEquals(2, moves.size());
+        AiService.MoveResultWithCoords first = moves.get(0);
+        assertEquals(1, Math.abs(first.getX() - 4) + Math.abs(first.getY() - 4));
     }
 
-    // можно ли размещать корабль рядом или поверх другого?
+    // ИИ не стреляет в клетки, уже отмеченные в наблюдениях из кэша игры?
     @Test
-    void canPlaceShip_ShouldReturnFalse_WhenShipOverlaps() {
-        List<List<String>> field = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            field.add(new ArrayList<>(Collections.nCopies(10, "0")));
+    void makeAiMoves_ShouldShootOnlyUnattackedCells() {
+        Observation observation = new Observation();
+        for (int cell = 0; cell < 99; cell++) {
+            observation.record(cell % 10, cell / 10, Move.MoveResult.MISS);
         }
-        // в пустом поле 1 корабль
-        field.get(0).set(0, "1");
+        game.setAiDifficulty(GameSession.AiDifficulty.EASY);
+        when(gameCacheService.getAiObservation(eq(game.getId()), any())).thenReturn(observation);
+        when(gameLogicService.makeMove(game, aiPlayer, 9, 9)).thenReturn(Move.MoveResult.MISS);
 
-        assertFalse(aiService.canPlaceShip(field, 0, 0, 1, true)); // Точно на месте
-        assertFalse(aiService.canPlaceShip(field, 1, 1, 1, true)); // Рядом (диагональ)
-    }
+        List<AiService.MoveResultWithCoords> moves = aiService.makeAiMoves(game);
 
-    // размещение кораблей правильное?
-    @Test
-    void canPlaceShip_ShouldReturnTrue_WhenValidPlacement() {
-        List<List<String>> field = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            field.add(new ArrayList<>(Collections.nCopies(10, "0")));
-        }
-        // проверка размещения
-        assertTrue(aiService.canPlaceShip(field, 0, 0, 1, true)); // Одиночный корабль
-        assertTrue(aiService.canPlaceShip(field, 5, 5, 3, false)); // Вертикальный корабль
+        assertEquals(1, moves.size());
+        assertTrue(observation.isShot(99));
+        verifyNoMoreInteractions(gameLogicService);
     }
 }
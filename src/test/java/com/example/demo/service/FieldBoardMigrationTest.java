@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.engine.BitBoard;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FieldBoardMigrationTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    // строка '0'/'1'/'2' переносится в маску кораблей и маску попаданий, ship_field обнуляется?
+    @Test
+    void migrate_ShouldMoveLegacyStringsToMasks() {
+        String legacy = "2111000000" + "0".repeat(89) + "2";
+        legacyColumn(true);
+        when(jdbcTemplate.queryForList(anyString()))
+                .thenReturn(List.of(Map.of("id", 5L, "ship_field", legacy, "hits_lo", 0L, "hits_hi", 0L)));
+        FieldBoardMigration migration = new FieldBoardMigration(jdbcTemplate, entityManagerFactory);
+
+        assertEquals(1, migration.migrate());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE field SET ships = ?, hits_lo = ?, hits_hi = ?, ship_field = NULL WHERE id = ?"),
+                rows.capture());
+        Object[] row = rows.getValue().get(0);
+        BitBoard ships = BitBoard.fromShipMask((byte[]) row[0]);
+        assertEquals(BitBoard.fromString(legacy).getShipsLo(), ships.getShipsLo());
+        assertEquals(1L, row[1]);                   // клетка (0, 0)
+        assertEquals(1L << 35, row[2]);             // клетка (9, 9) - 100-я
+        assertEquals(5L, row[3]);
+    }
+
+    // в базе без старого столбца перенос пропускается без запросов к field?
+    @Test
+    void migrate_ShouldSkip_WhenLegacyColumnIsMissing() {
+        legacyColumn(false);
+
+        assertEquals(0, new FieldBoardMigration(jdbcTemplate, entityManagerFactory).migrate());
+        verify(jdbcTemplate, never()).queryForList(anyString());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    // ошибка запроса при наличии старого столбца не выдаётся за «переносить нечего»?
+    @Test
+    void migrate_ShouldFail_WhenLegacyQueryFails() {
+        legacyColumn(true);
+        when(jdbcTemplate.queryForList(anyString()))
+                .thenThrow(new CannotAcquireLockException("lock wait timeout"));
+
+        assertThrows(CannotAcquireLockException.class,
+                () -> new FieldBoardMigration(jdbcTemplate, entityManagerFactory).migrate());
+    }
+
+    // столбец ищется по метаданным соединения, с учётом регистра имён в БД?
+    @Test
+    void hasLegacyColumn_ShouldReadConnectionMetadata() throws SQLException {
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        ResultSet columns = mock(ResultSet.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.getCatalog()).thenReturn("seabattle_bd");
+        when(metaData.storesUpperCaseIdentifiers()).thenReturn(true);
+        when(metaData.getColumns("seabattle_bd", null, "FIELD", "SHIP_FIELD")).thenReturn(columns);
+        when(columns.next()).thenReturn(true);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(inv -> inv.<ConnectionCallback<Boolean>>getArgument(0).doInConnection(connection));
+
+        assertTrue(new FieldBoardMigration(jdbcTemplate, entityManagerFactory).hasLegacyColumn());
+        verify(columns).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void legacyColumn(boolean present) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(present);
+    }
+}
@@ -1,20 +1,27 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.ai.Observation;
+import com.example.demo.model.Field;
 import com.example.demo.model.Move;
 import com.example.demo.model.GameSession;
 import com.example.demo.model.User;
+import com.example.demo.repository.FieldRepository;
+import com.example.demo.repository.GameSessionRepository;
 import com.example.demo.repository.MoveRepository;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,21 +30,37 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)     // поддержка моков для тестов
 class GameCacheServiceTest {
 
+    // настоящий кэш: атомарные compute/computeIfAbsent не имеет смысла мокать
+    private Cache<Long, GameState> gameStateCache;
+
     @Mock
-    private Cache<Long, List<Move>> movesCache;
+    private Cache<Long, Observation> aiObservationCache;
 
     @Mock
     private MoveRepository moveRepository;
 
-    @InjectMocks
+    @Mock
+    private FieldRepository fieldRepository;
+
+    @Mock
+    private GameSessionRepository gameRepository;
+
+    @Mock
+    private MoveWriteBehind moveWriteBehind;
+
     private GameCacheService gameCacheService;
 
     private Long gameId;
+    private GameSession game;
     private Move move;
     private User player;
+    private Field opponentField;
 
     @BeforeEach     // метод вызывающийся для всех тестов
     void setUp() {
+        gameStateCache = Caffeine.newBuilder().build();
+        gameCacheService = new GameCacheService(gameStateCache, aiObservationCache, moveRepository,
+                fieldRepository, gameRepository, moveWriteBehind);
         gameId = 1L;
 
         player = new User();
@@ -51,60 +74,181 @@ class GameCacheServiceTest {
         move.setPlayer(player);
         move.setResult(Move.MoveResult.HIT);
 
-        GameSession game = new GameSession();
+        User opponent = new User();
+        opponent.setId(2L);
+        opponent.setName("Opponent");
+
+        game = new GameSession();
         game.setId(gameId);
+        game.setPlayer1(player);
+        game.setPlayer2(opponent);
         move.setGame(game);
-    }
 
-    // правильно ли происходит добавление хода (Move) в кеш для указанной игры (gameId)
-    @Test
-    void cacheMove_ShouldAddMoveToCache() {
-        when(movesCache.getIfPresent(gameId)).thenReturn(new ArrayList<>());
-
-        gameCacheService.cacheMove(gameId, move);
-        // проверяем, что метод put() был вызван у movesCache с правильными аргументами (ход добавлен в кеш)
-        verify(movesCache).put(eq(gameId), anyList());
+        opponentField = new Field();
+        opponentField.setGame(game);
+        opponentField.setPlayer(opponent);
+        opponentField.setShipField("11" + "0".repeat(98));  // двухпалубный корабль в (0,0)-(1,0)
+        // при промахе кэша состояние собирается из БД: там только поле соперника, ходов нет
+        lenient().when(gameRepository.findById(gameId)).thenReturn(Optional.of(game));
+        lenient().when(fieldRepository.findByGame(game)).thenReturn(List.of(opponentField));
     }
 
-    // должен проигнорировать попытку кеширования?
+    // выстрел добавляет ход в кэш и ставит его в очередь записи в БД?
     @Test
-    void cacheMove_ShouldNotCacheWhenGameIdIsNull() {
-        gameCacheService.cacheMove(null, move);
-        // ожидаем, что метод не вызвался
-        verify(movesCache, never()).put(any(), any());
+    void fire_ShouldAddMoveToCache() {
+        GameCacheService.Shot shot = shoot(0, 0);
+
+        assertEquals(Move.MoveResult.HIT, shot.move().getResult());
+        assertSame(opponentField, shot.opponentField());
+        assertEquals(List.of(shot.move()), gameCacheService.getCachedMoves(gameId));
+        verify(moveWriteBehind).enqueue(shot.move());  // ход поставлен в очередь записи в БД
     }
 
-    // получение ходов из кеша для указанного gameId корректно?
+    // получение ходов из кеша для указанного gameId корректно, снимок не меняется после новых ходов?
     @Test
     void getCachedMoves_ShouldReturnCachedMoves() {
-        // получаем список с тестовым ходом
-        List<Move> expectedMoves = List.of(move);
-        when(movesCache.getIfPresent(gameId)).thenReturn(expectedMoves);
+        Move first = shoot(0, 0).move();
 
         List<Move> result = gameCacheService.getCachedMoves(gameId);
-        // сравниваем ожидаемый список с рез-том
-        assertEquals(expectedMoves, result);
+        shoot(1, 0);
+
+        assertEquals(List.of(first), result);
+        assertEquals(2, gameCacheService.getCachedMoves(gameId).size());
+        assertTrue(gameCacheService.getCachedMoves(99L).isEmpty());
     }
 
-    // происходит ли инициализация кеша данными из БД, если кеш пуст?
+    // происходит ли инициализация кеша данными из БД, если кеш пуст, и только один раз?
     @Test
     void initializeCacheForGame_ShouldLoadMovesFromDbWhenCacheEmpty() {
-        List<Move> dbMoves = List.of(move);
-        when(movesCache.getIfPresent(gameId)).thenReturn(null); // возвращаем пустой кеш
-        when(moveRepository.findByGame(any())).thenReturn(dbMoves); // возвращаем список с ходом
+        when(moveRepository.findByGame(any())).thenReturn(List.of(move)); // возвращаем список с ходом
 
-        gameCacheService.initializeCacheForGame(gameId);
+        gameCacheService.initializeCacheForGame(move.getGame());
+        gameCacheService.initializeCacheForGame(move.getGame());
 
-        // проверяем, что put() вызван у movesCache с ходами из БД
-        verify(movesCache).put(eq(gameId), eq(dbMoves));
+        assertEquals(List.of(move), gameCacheService.getCachedMoves(gameId));
+        verify(moveRepository, times(1)).findByGame(any());
+        verify(moveWriteBehind, never()).flush();   // до присоединения ходов нет - очередь не ждём
+    }
+
+    // новая игра попадает в кэш пустой, без запросов к БД и ожидания очереди записи?
+    @Test
+    void initializeCacheForNewGame_ShouldNotReadDbOrFlush() {
+        gameCacheService.initializeCacheForNewGame(move.getGame());
+
+        GameState state = gameCacheService.getGameState(gameId);
+        assertEquals(0, state.getMoves().size());
+        verifyNoInteractions(moveRepository, fieldRepository, gameRepository, moveWriteBehind);
+    }
+
+    // параллельные выстрелы в одной игре не теряются?
+    @Test
+    void fire_ShouldNotLoseConcurrentMoves() throws InterruptedException {
+        int threads = 4;
+        int movesPerThread = 25;    // у каждого потока свои клетки: 4 x 25 = всё поле
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            int first = t * movesPerThread;
+            executor.submit(() -> {
+                start.await();
+                for (int cell = first; cell < first + movesPerThread; cell++) {
+                    shoot(cell % 10, cell / 10);
+                    gameCacheService.getCachedMoves(gameId).size();    // чтение во время записи
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * movesPerThread, gameCacheService.getCachedMoves(gameId).size());
+    }
+
+    // повторный выстрел в ту же клетку и выстрел не в свою очередь не попадают в журнал?
+    @Test
+    void fire_ShouldRejectRepeatedCellAndWrongTurn() {
+        shoot(0, 0);    // HIT: ход остаётся у игрока 1
+
+        assertThrows(IllegalStateException.class, () -> shoot(0, 0));
+        assertThrows(IllegalStateException.class,
+                () -> gameCacheService.fire(game, game.getPlayer2(), MoveLog.PLAYER2, 5, 5, true));
+        MoveLog moves = gameCacheService.getGameState(gameId).getMoves();
+        assertEquals(1, moves.size());
+        assertTrue(moves.isAttacked(MoveLog.PLAYER1, 0));
+        assertFalse(moves.isAttacked(MoveLog.PLAYER2, 0));
+        assertEquals(MoveLog.PLAYER1, moves.toMove());
+    }
+
+    // состояние партии собирается из БД один раз, сохранённое поле добавляется в него?
+    @Test
+    void getGameState_ShouldLoadOnceAndRegisterField() {
+        GameState state = gameCacheService.getGameState(gameId);
+        Field field = new Field();
+        field.setGame(move.getGame());
+        field.setPlayer(player);
+        gameCacheService.registerField(field);
+
+        assertSame(state, gameCacheService.getGameState(gameId));
+        assertSame(field, state.field(MoveLog.PLAYER1));
+        assertSame(opponentField, state.field(MoveLog.PLAYER2));
+        verify(gameRepository, times(1)).findById(gameId);
+        verify(moveWriteBehind).flush();    // перезагрузка: ходы из очереди записи сброшены до чтения из БД
+    }
+
+    // вес партии в кэше пересчитывается после каждого хода?
+    @Test
+    void fire_ShouldReweighGameState() {
+        gameStateCache = Caffeine.newBuilder()
+                .maximumWeight(1 << 20)
+                .weigher((Long id, GameState state) -> state.estimatedBytes())
+                .executor(Runnable::run)    // обслуживание кэша в том же потоке, вес виден сразу
+                .build();
+        gameCacheService = new GameCacheService(gameStateCache, aiObservationCache, moveRepository,
+                fieldRepository, gameRepository, moveWriteBehind);
+
+        shoot(0, 0);
+        gameStateCache.cleanUp();
+
+        long weight = gameStateCache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertEquals(GameState.BASE_BYTES + GameState.MOVE_BYTES, weight);
+    }
+
+    // прогрев собирает состояние из общих запросов и не затирает игру, уже живущую в кэше?
+    @Test
+    void warmUp_ShouldLoadStatesInBulkAndKeepLiveOnes() {
+        GameSession other = new GameSession();
+        other.setId(2L);
+        other.setPlayer1(player);
+        Move live = shoot(0, 0).move();     // игра 1 уже в кэше
+        Move otherMove = new Move();
+        otherMove.setGame(other);
+        otherMove.setPlayer(player);
+        otherMove.setResult(Move.MoveResult.MISS);
+        when(moveRepository.findByGameIn(any())).thenReturn(List.of(otherMove));
+
+        int loaded = gameCacheService.warmUp(List.of(move.getGame(), other));
+
+        assertEquals(1, loaded);
+        assertEquals(List.of(live), gameCacheService.getCachedMoves(gameId));
+        assertEquals(List.of(otherMove), gameCacheService.getCachedMoves(2L));
+        assertEquals(MoveLog.PLAYER2, gameCacheService.getGameState(2L).getMoves().toMove());   // после промаха ход у соперника
+        verify(moveRepository, never()).findByGame(other);
     }
 
     // очистки кеша для указанного gameId корректна?
     @Test
     void invalidateCache_ShouldInvalidateCacheForGame() {
+        shoot(0, 0);
+
         gameCacheService.invalidateCache(gameId);
 
-        // проверяем, что invalidate() вызван у movesCache с правильным gameId
-        verify(movesCache).invalidate(gameId);
+        assertTrue(gameCacheService.getCachedMoves(gameId).isEmpty());
+        verify(aiObservationCache).invalidate(gameId);
+    }
+
+    // выстрел игрока 1 без проверки очереди - как в PvE
+    private GameCacheService.Shot shoot(int x, int y) {
+        return gameCacheService.fire(game, player, MoveLog.PLAYER1, x, y, false);
     }
 }
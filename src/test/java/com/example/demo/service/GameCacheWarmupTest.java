@@ -0,0 +1,54 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.repository.GameSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameCacheWarmupTest {
+
+    @Mock
+    private GameSessionRepository gameRepository;
+
+    @Mock
+    private GameCacheService gameCacheService;
+
+    // страницы читаются по ключу (после последнего id), каждая передаётся в кэш, время записано?
+    @Test
+    void warmUp_ShouldWalkPagesByKey() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GameCacheWarmup warmup = new GameCacheWarmup(gameRepository, gameCacheService, registry, true, 2, 2);
+        GameSession.GameStatus finished = GameSession.GameStatus.FINISHED;
+        when(gameRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(eq(finished), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(game(1L), game(5L)));
+        when(gameRepository.findByStatusNotAndIdGreaterThanOrderByIdAsc(eq(finished), eq(5L), any(Limit.class)))
+                .thenReturn(List.of(game(7L)));
+        when(gameCacheService.warmUp(anyList())).thenAnswer(invocation -> invocation.<List<?>>getArgument(0).size());
+
+        int loaded = warmup.warmUp();
+
+        assertEquals(3, loaded);
+        verify(gameCacheService, times(2)).warmUp(anyList());
+        verify(gameRepository, times(2)).findByStatusNotAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+        assertEquals(1, registry.timer("seabattle.cache.warmup").count());
+    }
+
+    private GameSession game(Long id) {
+        GameSession game = new GameSession();
+        game.setId(id);
+        return game;
+    }
+}
@@ -1,24 +1,37 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.BitBoard;
 import com.example.demo.model.*;
 import com.example.demo.repository.FieldRepository;
 import com.example.demo.repository.GameSessionRepository;
 import com.example.demo.repository.MoveRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,7 +74,7 @@ class GameLogicServiceTest {
         player1Field = new Field();
         player1Field.setGame(game);
         player1Field.setPlayer(player1);
-        player1Field.setShipField("00000000000000000000000010000000001000000000100000000010000000000000000000000000000000000000000000"); // 100 chars
+        player1Field.setShipField("0000000000000000000000001000000000100000000010000000001000000000000000000000000000000000000000000000"); // 100 chars
 
 
 
@@ -71,27 +84,15 @@ class GameLogicServiceTest {
         player2Field.setShipField("1000000000100000000010000000001000000000100000000010000000001000000000000000000000000000000000000000"); // 100 chars
     }
 
-    // устанавливает ли метод первого игрока, когда нет ходов?
-    @Test
-    void getCurrentPlayer_ShouldReturnPlayer1_WhenNoMoves() {
-        when(gameCacheService.getCachedMoves(anyLong())).thenReturn(Collections.emptyList());
-
-        User currentPlayer = gameLogicService.getCurrentPlayer(game);
-        assertEquals(player1, currentPlayer);
-    }
-
     // остается ли право хода после попадания?
     @Test
-    void getCurrentPlayer_ShouldReturnSamePlayer_AfterHit() {
-        Move hitMove = new Move();
-        hitMove.setPlayer(player1);
-        hitMove.setResult(Move.MoveResult.HIT);
+    void makeMove_ShouldKeepTurn_AfterHit() {
+        GameCacheService cache = cacheWith(new MoveLog());
 
-        when(gameCacheService.getCachedMoves(anyLong())).thenReturn(List.of(hitMove));
+        assertEquals(Move.MoveResult.HIT, logicWith(cache).makeMove(game, player1, 0, 0));
 
         // проверка, что ход еще принадлежит первому игроку
-        User currentPlayer = gameLogicService.getCurrentPlayer(game);
-        assertEquals(player1, currentPlayer);
+        assertEquals(MoveLog.PLAYER1, cache.getGameState(game.getId()).getMoves().toMove());
     }
 
     // нельзя сделать ход в завершенной игре?
@@ -105,34 +106,167 @@ class GameLogicServiceTest {
     // сможет ли игрок сделать ход не в свою очередь
     @Test
     void validateMove_ShouldThrow_WhenNotPlayersTurn() {
-        // создаем последний ход от player1 с MISS
-        Move lastMove = new Move();
-        lastMove.setPlayer(player1);
-        lastMove.setResult(Move.MoveResult.MISS);
-        lastMove.setGame(game);
+        // последний ход player1 был промахом - очередь у player2
+        MoveLog moves = new MoveLog();
+        moves.append(move(player1, 9, 9, Move.MoveResult.MISS), MoveLog.PLAYER1);
+        GameLogicService logic = logicWith(cacheWith(moves));
 
-        // возврат этого хода
-        when(gameCacheService.getCachedMoves(game.getId())).thenReturn(List.of(lastMove));
-
-        // проверяем что текущий игрок должен быть player2
-        assertEquals(player2, gameLogicService.getCurrentPlayer(game));
+        // очередь у player2
+        assertEquals(MoveLog.PLAYER2, moves.toMove());
 
         // попытка хода player1 должна вызвать исключение
-        assertThrows(IllegalStateException.class,
-                () -> gameLogicService.makeMove(game, player1, 0, 0));
+        assertThrows(IllegalStateException.class, () -> logic.makeMove(game, player1, 0, 0));
+        assertFalse(player2Field.getBoard().isShot(0, 0));     // поле не тронуто
     }
 
-    // определяет ли Метод правильно, что все корабли потоплены?
+    // повторный выстрел в ту же клетку отклоняется без просмотра списка ходов?
     @Test
-    void allShipsSunk_ShouldReturnTrue_WhenAllShipsAreSunk() {
-        List<List<Integer>> field = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            List<Integer> row = new ArrayList<>();
-            for (int j = 0; j < 10; j++) {
-                row.add(0); // Все клетки пустые
+    void validateMove_ShouldThrow_WhenCellAlreadyAttacked() {
+        MoveLog moves = new MoveLog();
+        moves.append(move(player1, 2, 3, Move.MoveResult.HIT), MoveLog.PLAYER1);
+        GameLogicService logic = logicWith(cacheWith(moves));
+
+        assertThrows(IllegalStateException.class, () -> logic.makeMove(game, player1, 2, 3));
+        assertEquals(1, moves.size());
+    }
+
+    // выстрел идёт по полю противника из состояния партии, попадания пишутся маской в конце хода?
+    @Test
+    void makeMove_ShouldFireAtCachedBoard() {
+        player2Field.setId(20L);
+        String placement = player2Field.getShipField();
+        MoveLog moves = new MoveLog();
+        GameLogicService logic = logicWith(cacheWith(moves));
+
+        assertEquals(Move.MoveResult.HIT, logic.makeMove(game, player1, 0, 0));
+        assertEquals(Move.MoveResult.HIT, logic.makeMove(game, player1, 0, 1));
+        verify(fieldRepository, never()).updateHits(anyLong(), anyLong(), anyLong());   // ход ещё не окончен
+
+        assertEquals(Move.MoveResult.MISS, logic.makeMove(game, player1, 5, 5));
+
+        assertTrue(player2Field.getBoard().isShot(0, 0));
+        verify(fieldRepository, times(1)).updateHits(20L, (1L << 0) | (1L << 10), 0L);
+        assertEquals(placement, player2Field.getPlacement().toFieldString());   // расстановка не меняется
+        verify(fieldRepository, never()).findByGameAndPlayer(any(), any());
+        assertEquals(3, moves.size());
+        assertEquals(MoveLog.PLAYER2, moves.toMove());
+    }
+
+    // одновременные ходы после промаха: очередь проверяется вместе с выстрелом, проходит только один?
+    @Test
+    void makeMove_ShouldAcceptOneOfConcurrentTurns() throws Exception {
+        GameLogicService logic = logicWith(cacheWith(new MoveLog()));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Move.MoveResult>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int x = t + 2;      // пустые клетки в последней строке поля player2 - все промахи
+            results.add(executor.submit(() -> {
+                start.await();
+                return logic.makeMove(game, player1, x, 9);
+            }));
+        }
+        start.countDown();
+        int accepted = 0;
+        for (Future<Move.MoveResult> result : results) {
+            try {
+                assertEquals(Move.MoveResult.MISS, result.get(10, TimeUnit.SECONDS));
+                accepted++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
             }
-            field.add(row);
         }
+        executor.shutdown();
+
+        assertEquals(1, accepted);
+    }
+
+    // параллельные выстрелы по одному полю не теряют попаданий, каждый корабль тонет ровно один раз?
+    @Test
+    void makeMove_ShouldNotLoseConcurrentHits() throws Exception {
+        game.setType(GameSession.GameType.PvE);     // без очереди хода: стреляют все потоки сразу
+        player2Field.setShipField(fleetField());
+        MoveLog moves = new MoveLog();
+        GameLogicService logic = logicWith(cacheWith(moves));
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Move.MoveResult>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t * 25;
+            results.add(executor.submit(() -> {
+                start.await();
+                List<Move.MoveResult> own = new ArrayList<>();
+                for (int cell = first; cell < first + 25; cell++) {
+                    if (player2Field.getPlacement().hasShip(cell % 10, cell / 10)) {
+                        own.add(logic.makeMove(game, player1, cell % 10, cell / 10));
+                    }
+                }
+                return own;
+            }));
+        }
+        start.countDown();
+        List<Move.MoveResult> all = new ArrayList<>();
+        for (Future<List<Move.MoveResult>> result : results) {
+            all.addAll(result.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(20, all.size());
+        assertEquals(10, all.stream().filter(r -> r == Move.MoveResult.SUNK).count());
+        assertTrue(player2Field.getBoard().allShipsSunk());
+        assertEquals(20, moves.size());
+        verify(gameRepository).saveAndFlush(game);    // игра завершена один раз
+    }
+
+    // последние ходы выигранной партии пишутся в БД после фиксации транзакции хода, а не под блокировкой строки игры?
+    @Test
+    void endGame_ShouldSaveLastMovesAfterCommit() {
+        player2Field.setShipField("1" + "0".repeat(99));     // один однопалубный корабль
+        MoveWriteBehind writeBehind = new MoveWriteBehind(moveRepository, mock(PlatformTransactionManager.class),
+                MoveJournal.disabled(), 50);
+        Cache<Long, GameState> states = Caffeine.newBuilder().build();
+        states.put(game.getId(), new GameState(game, List.of(player1Field, player2Field), new MoveLog()));
+        GameLogicService logic = logicWith(new GameCacheService(states, Caffeine.newBuilder().build(),
+                moveRepository, fieldRepository, gameRepository, writeBehind));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertEquals(Move.MoveResult.SUNK, logic.makeMove(game, player1, 0, 0));
+            assertEquals(GameSession.GameStatus.FINISHED, game.getStatus());
+            verify(moveRepository, never()).saveAll(any());     // транзакция хода ещё держит строку игры
+            assertNotNull(states.getIfPresent(game.getId()));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            writeBehind.shutdown();
+        }
+
+        verify(moveRepository).saveAll(argThat(moves -> ((List<Move>) moves).size() == 1
+                && ((List<Move>) moves).get(0).getResult() == Move.MoveResult.SUNK));
+        assertEquals(0, writeBehind.pending());
+        assertNull(states.getIfPresent(game.getId()));
+    }
+
+    // выстрелы из журнала ходов ложатся на поле, даже если маска попаданий в БД отстала?
+    @Test
+    void gameState_ShouldReplayShotsMissingFromHitMask() {
+        MoveLog moves = new MoveLog();
+        moves.append(move(player1, 0, 0, Move.MoveResult.HIT), MoveLog.PLAYER1);
+
+        new GameState(game, List.of(player1Field, player2Field), moves);
+
+        assertTrue(player2Field.getBoard().isShot(0, 0));
+        assertTrue(player2Field.syncHits());    // попадание ещё предстоит записать
+    }
+
+    // определяет ли Метод правильно, что все корабли потоплены?
+    @Test
+    void allShipsSunk_ShouldReturnTrue_WhenAllShipsAreSunk() {
+        BitBoard field = new BitBoard(); // Все клетки пустые
 
         assertTrue(gameLogicService.allShipsSunk(field));
     }
@@ -140,15 +274,8 @@ class GameLogicServiceTest {
     // определяет ли Метод правильно, что не все корабли потоплены?
     @Test
     void allShipsSunk_ShouldReturnFalse_WhenShipExists() {
-        List<List<Integer>> field = new ArrayList<>();
-        for (int i = 0; i < 10; i++) {
-            List<Integer> row = new ArrayList<>();
-            for (int j = 0; j < 10; j++) {
-                row.add(0);
-            }
-            field.add(row);
-        }
-        field.get(0).set(0, 1); // Одна клетка с кораблём
+        BitBoard field = new BitBoard();
+        field.setShip(0, 0); // Одна клетка с кораблём
 
         assertFalse(gameLogicService.allShipsSunk(field));
     }
@@ -156,56 +283,59 @@ class GameLogicServiceTest {
     // после промаха (MISS) ход переходит другому игроку?
     @Test
     void testPlayerSwitchAfterMiss() {
-        GameSession game = new GameSession();
-        game.setId(1L);
-
-        User player1 = new User();
-        player1.setId(79L);
-        player1.setName("Player1");
-
-        User player2 = new User();
-        player2.setId(80L);
-        player2.setName("Player2");
+        GameCacheService cache = cacheWith(new MoveLog());
 
-        game.setPlayer1(player1);
-        game.setPlayer2(player2);
-        game.setType(GameSession.GameType.PvP);
-
-        // создаем тестовый ход с MISS
-        Move missMove = new Move();
-        missMove.setPlayer(player1);
-        missMove.setResult(Move.MoveResult.MISS);
-        missMove.setGame(game); // устанавливаем связь с игрой
+        assertEquals(Move.MoveResult.MISS, logicWith(cache).makeMove(game, player1, 5, 5));
 
-        when(gameCacheService.getCachedMoves(1L)) // Используем конкретный ID игры
-                .thenReturn(List.of(missMove));
-
-        User nextPlayer = gameLogicService.getCurrentPlayer(game);
-        // Проверка
-        assertEquals(player2.getId(), nextPlayer.getId());
+        assertEquals(MoveLog.PLAYER2, cache.getGameState(game.getId()).getMoves().toMove());
     }
 
     // после попадания (HIT) ход остается у того же игрока?
     @Test
     void testPlayerStaysAfterHit() {
-        GameSession game = new GameSession();
-        game.setId(1L);
+        GameCacheService cache = cacheWith(new MoveLog());
+        GameLogicService logic = logicWith(cache);
 
-        User player1 = new User();
-        player1.setId(79L);
-        User player2 = new User();
-        player2.setId(80L);
-        game.setPlayer1(player1);
-        game.setPlayer2(player2);
-        game.setType(GameSession.GameType.PvP);
+        logic.makeMove(game, player1, 5, 5);        // промах - ход у player2
+        logic.makeMove(game, player2, 0, 0);        // промах - ход снова у player1
+        assertEquals(Move.MoveResult.HIT, logic.makeMove(game, player1, 0, 0));
+
+        assertEquals(MoveLog.PLAYER1, cache.getGameState(game.getId()).getMoves().toMove());
+    }
 
-        Move hitMove = new Move();
-        hitMove.setPlayer(player1);
-        hitMove.setResult(Move.MoveResult.HIT);
+    // кэш игры с готовым состоянием: поля обоих игроков и заданный журнал ходов
+    private GameCacheService cacheWith(MoveLog moves) {
+        Cache<Long, GameState> states = Caffeine.newBuilder().build();
+        states.put(game.getId(), new GameState(game, List.of(player1Field, player2Field), moves));
+        return new GameCacheService(states, Caffeine.newBuilder().build(), moveRepository,
+                fieldRepository, gameRepository, mock(MoveWriteBehind.class));
+    }
 
-        when(gameCacheService.getCachedMoves(1L)).thenReturn(List.of(hitMove));
+    // полный флот в строковом виде: 4, 3+3, 2+2+2, 1+1+1+1 палубы без касаний
+    private static String fleetField() {
+        return BitBoard.fromRows(List.of(
+                List.of("1", "1", "1", "1", "0", "1", "1", "1", "0", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("1", "1", "1", "0", "1", "1", "0", "1", "1", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("1", "1", "0", "1", "0", "1", "0", "1", "0", "1"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"),
+                List.of("0", "0", "0", "0", "0", "0", "0", "0", "0", "0"))).toFieldString();
+    }
+
+    private GameLogicService logicWith(GameCacheService cache) {
+        return new GameLogicService(fieldRepository, gameRepository, moveRepository, cache);
+    }
 
-        User nextPlayer = gameLogicService.getCurrentPlayer(game);
-        assertEquals(player1.getId(), nextPlayer.getId());
+    private static Move move(User player, int x, int y, Move.MoveResult result) {
+        Move move = new Move();
+        move.setPlayer(player);
+        move.setX(x);
+        move.setY(y);
+        move.setResult(result);
+        return move;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,12 @@
 package com.example.demo.service;
 
+import com.example.demo.engine.BitBoard;
+import com.example.demo.engine.FleetValidator;
+import com.example.demo.engine.PlacementCheck;
 import com.example.demo.exception.GameNotFoundException;
 import com.example.demo.model.*;
+import com.example.demo.model.dto.GameHistoryPage;
+import com.example.demo.model.dto.GameStatus;
 import com.example.demo.model.dto.MakeMoveRequest;
 import com.example.demo.model.dto.MoveResultResponse;
 import com.example.demo.repository.*;
@@ -11,15 +16,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,7 +46,7 @@ class GameServiceTest {
     private GameSessionRepository gameRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private UserCacheService userCacheService;
 
     @Mock
     private MoveRepository moveRepository;
@@ -83,10 +94,8 @@ class GameServiceTest {
     // Проверяем, что в ответе указан ожидаемый результат HIT
     @Test
     void processPlayerMove_ShouldReturnResponse_ForValidMove() {
-        when(gameRepository.findById(anyLong()))    // Когда вызывается findById с любым Long
-                .thenReturn(Optional.of(game));     // Тогда возвращаем Optional с тестовой игрой
-        when(userRepository.findById(anyLong()))
-                .thenReturn(Optional.of(player1));
+        when(gameCacheService.getGameState(1L))    // Состояние партии берётся из кэша
+                .thenReturn(new GameState(game, List.of(), new MoveLog()));
         when(gameLogicService.makeMove(any(), any(), anyInt(), anyInt()))   // Когда вызывается makeMove с любыми параметрами
                 .thenReturn(Move.MoveResult.HIT);                            // Тогда возвращаем HIT
 
@@ -98,6 +107,8 @@ class GameServiceTest {
         assertNotNull(response, "Response should not be null");
         // Проверяем, что результат хода - HIT
         assertEquals(Move.MoveResult.HIT, response.getPlayerResult());
+        // ход обслуживается без чтения игры и игрока из БД
+        verifyNoInteractions(gameRepository, userCacheService);
     }
 
     // выбрасывает ли joinGame() исключение IllegalStateException, когда:
@@ -129,30 +140,30 @@ class GameServiceTest {
     // возвращает ли метод валидации true для корректной расстановки кораблей?
     // созданное поле createValidField() действительно проходит валидацию?
     @Test
-    void isValidShipPlacement_ShouldReturnTrue_ForValidField() {
+    void validate_ShouldReturnValid_ForValidField() {
         List<List<String>> validField = createValidField();
         // вызов метода
-        boolean isValid = gameService.isValidShipPlacement(validField);
+        PlacementCheck check = FleetValidator.validate(validField);
         // проверяем, положительный ли рез-т валидации
-        assertTrue(isValid);
+        assertEquals(PlacementCheck.VALID, check);
     }
 
     // корректна ли проверка валидации?
     @Test
-    void isValidShipPlacement_ShouldReturnFalse_ForInvalidField() {
+    void validate_ShouldReturnWrongFleet_ForEmptyField() {
         // делаем невалидное поле
         List<List<String>> invalidField = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
             invalidField.add(new ArrayList<>(Collections.nCopies(10, "0")));
         }
-        boolean isValid = gameService.isValidShipPlacement(invalidField);
-        // ожидаем false
-        assertFalse(isValid);
+        PlacementCheck check = FleetValidator.validate(invalidField);
+        // ожидаем отказ из-за состава флота
+        assertEquals(PlacementCheck.WRONG_FLEET, check);
     }
 
     // корректно ли работает проверка расстояния?
     @Test
-    void checkShipSpacing_ShouldReturnFalse_WhenShipsTooClose() {
+    void validate_ShouldReturnShipsTouching_WhenShipsTooClose() {
         // создаём пустое поле
         List<List<String>> invalidField = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
@@ -162,8 +173,141 @@ class GameServiceTest {
         invalidField.get(0).set(0, "1"); // Первый корабль
         invalidField.get(1).set(1, "1"); // Второй корабль рядом
         // проверка расстояния
-        boolean isValid = gameService.checkShipSpacing(invalidField);
-        assertFalse(isValid);
+        PlacementCheck check = FleetValidator.validate(invalidField);
+        assertEquals(PlacementCheck.SHIPS_TOUCHING, check);
+    }
+
+    // неверная расстановка не сохраняется, а причина попадает в сообщение?
+    @Test
+    void saveShipPlacement_ShouldThrow_WhenShipsTouch() {
+        List<List<String>> field = createValidField();
+        field.get(1).set(4, "1"); // касается 4-палубного по диагонали
+        when(fieldRepository.findByGameAndPlayer(any(), any())).thenReturn(Optional.empty());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> gameService.saveShipPlacement(game, player1, field));
+        assertEquals(PlacementCheck.SHIPS_TOUCHING.getMessage(), ex.getMessage());
+        verify(fieldRepository, never()).save(any(Field.class));
+    }
+
+    // расстановка в виде битовой маски проверяется и сохраняется так же, как список?
+    @Test
+    void saveShipPlacement_ShouldSaveValidBoard() {
+        BitBoard board = BitBoard.fromRows(createValidField());
+        when(fieldRepository.findByGameAndPlayer(any(), any())).thenReturn(Optional.empty());
+
+        gameService.saveShipPlacement(game, player1, BitBoard.fromShipMask(board.toShipMask()));
+
+        verify(fieldRepository).save(argThat(field ->
+                field.getShipField().equals(board.toFieldString())));
+    }
+
+    // PvE-игра получает ИИ-игрока из памяти, без поиска по имени в БД?
+    @Test
+    void createGame_ShouldTakeAiPlayerFromCache() {
+        when(userCacheService.getAiPlayer()).thenReturn(player2);
+        when(gameRepository.save(any(GameSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        GameSession created = gameService.createGame(player1, GameSession.GameType.PvE);
+
+        assertSame(player2, created.getPlayer2());
+        assertEquals(GameSession.AiDifficulty.NORMAL, created.getAiDifficulty());
+        verify(aiService).setupAiShips(created, player2);
+    }
+
+    // ошибка расстановки ИИ не оставляет игру в кэше и доходит до транзакции для отката?
+    @Test
+    void createGame_ShouldDropCachedGame_WhenAiSetupFails() {
+        when(userCacheService.getAiPlayer()).thenReturn(player2);
+        when(gameRepository.save(any(GameSession.class))).thenAnswer(invocation -> {
+            GameSession saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+        doThrow(new IllegalStateException("нет расстановки")).when(aiService).setupAiShips(any(), any());
+
+        assertThrows(IllegalStateException.class,
+                () -> gameService.createGame(player1, GameSession.GameType.PvE, GameSession.AiDifficulty.EASY));
+        verify(gameCacheService).invalidateCache(5L);
+    }
+
+    // незавершённая игра ищется запросами существования, история игрока не загружается?
+    @Test
+    void hasActiveGame_ShouldCheckBothRolesWithoutHistory() {
+        when(gameRepository.existsByPlayer1AndStatusIn(player1, GameSession.ACTIVE_STATUSES)).thenReturn(false);
+        when(gameRepository.existsByPlayer2AndStatusIn(player1, GameSession.ACTIVE_STATUSES)).thenReturn(true);
+
+        assertTrue(gameService.hasActiveGame(player1));
+        verify(gameRepository).existsByPlayer2AndStatusIn(player1, GameSession.ACTIVE_STATUSES);
+        verifyNoMoreInteractions(gameRepository);
+    }
+
+    // игры из двух ролей сливаются по (createdAt, id), лишняя строка даёт курсор, а курсор раскладывается
+    // в (createdAt, id) последней строки для обоих запросов?
+    @Test
+    void getUserGameHistory_ShouldMergeRolesAndContinueFromCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(gameRepository.findHistoryPageAsPlayer1(eq(1L), isNull(), eq(GameSession.GameType.PvE), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(List.of(historyRow(3L, createdAt.plusMinutes(2)), historyRow(1L, createdAt)));
+        when(gameRepository.findHistoryPageAsPlayer2(eq(1L), isNull(), eq(GameSession.GameType.PvE), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(List.of(historyRow(2L, createdAt)));
+
+        GameHistoryPage first = gameService.getUserGameHistory(1L, null, 2, null, GameSession.GameType.PvE);
+
+        assertEquals(List.of(3L, 2L), first.getGames().stream().map(GameStatus::getId).toList());
+        assertNotNull(first.getNextCursor());
+
+        when(gameRepository.findHistoryPageAsPlayer1(1L, null, null, createdAt, 2L, Limit.of(3)))
+                .thenReturn(List.of(historyRow(1L, createdAt)));
+        when(gameRepository.findHistoryPageAsPlayer2(1L, null, null, createdAt, 2L, Limit.of(3)))
+                .thenReturn(List.of());
+
+        GameHistoryPage second = gameService.getUserGameHistory(1L, first.getNextCursor(), 2, null, null);
+
+        assertEquals(List.of(1L), second.getGames().stream().map(GameStatus::getId).toList());
+        assertNull(second.getNextCursor());
+    }
+
+    // старая игра без даты создания идёт после датированных, а её курсор продолжает историю по id?
+    @Test
+    void getUserGameHistory_ShouldPageLegacyGamesWithoutCreatedAt() {
+        when(gameRepository.findHistoryPageAsPlayer1(1L, null, null, null, null, Limit.of(2)))
+                .thenReturn(List.of(historyRow(5L, null), historyRow(4L, null)));
+        when(gameRepository.findHistoryPageAsPlayer2(1L, null, null, null, null, Limit.of(2)))
+                .thenReturn(List.of(historyRow(2L, LocalDateTime.of(2024, 5, 1, 12, 0))));
+
+        GameHistoryPage first = gameService.getUserGameHistory(1L, null, 1, null, null);
+
+        assertEquals(List.of(2L), first.getGames().stream().map(GameStatus::getId).toList());
+
+        when(gameRepository.findHistoryPageAsPlayer1(1L, null, null, null, 5L, Limit.of(2)))
+                .thenReturn(List.of(historyRow(4L, null)));
+
+        GameHistoryPage legacy = gameService.getUserGameHistory(1L, encodeCursorOf("null|5"), 1, null, null);
+
+        assertEquals(List.of(4L), legacy.getGames().stream().map(GameStatus::getId).toList());
+        assertNull(legacy.getNextCursor());
+    }
+
+    // размер страницы ограничен сверху, испорченный курсор - ошибка запроса?
+    @Test
+    void getUserGameHistory_ShouldClampSizeAndRejectBadCursor() {
+        Limit limit = Limit.of(GameService.HISTORY_MAX_PAGE_SIZE + 1);
+        when(gameRepository.findHistoryPageAsPlayer1(1L, null, null, null, null, limit)).thenReturn(List.of());
+        when(gameRepository.findHistoryPageAsPlayer2(1L, null, null, null, null, limit)).thenReturn(List.of());
+
+        assertTrue(gameService.getUserGameHistory(1L, null, 10_000, null, null).getGames().isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> gameService.getUserGameHistory(1L, "не-курсор", 20, null, null));
+    }
+
+    private static String encodeCursorOf(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private GameStatus historyRow(Long id, LocalDateTime createdAt) {
+        return new GameStatus(id, GameSession.GameType.PvE, GameSession.GameStatus.FINISHED,
+                1L, "Player1", 2L, "AI Player", 1L, "Player1", createdAt, createdAt != null ? createdAt.plusMinutes(1) : null);
     }
 
     // вспомогательный метод валидной расстановки кораблей
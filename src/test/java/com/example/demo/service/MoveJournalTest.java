@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.model.Move;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveJournalTest {
+
+    @TempDir
+    Path dir;
+
+    // записанные ходы читаются после повторного открытия файла, как после падения?
+    @Test
+    void pending_ShouldSurviveReopen() {
+        MoveJournal journal = open();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15);
+        journal.append(move(1L, 7L, 3, 9, Move.MoveResult.HIT, createdAt));
+        journal.append(move(1L, 8L, 0, 0, Move.MoveResult.MISS, createdAt));
+        journal.close();
+
+        List<MoveJournal.Entry> entries = open().pending();
+
+        assertEquals(2, entries.size());
+        assertEquals(new MoveJournal.Entry(1, 1L, 7L, 3, 9, Move.MoveResult.HIT, createdAt), entries.get(0));
+        assertEquals(Move.MoveResult.MISS, entries.get(1).result());
+    }
+
+    // контрольная точка посреди журнала: после повторного открытия ходы за ней не теряются и не затираются?
+    @Test
+    void checkpoint_ShouldKeepLaterMovesAfterReopen() {
+        MoveJournal journal = open();
+        for (int i = 0; i < 3; i++) {
+            journal.append(move(1L, 7L, i, 0, Move.MoveResult.MISS, null));
+        }
+        journal.checkpoint(2);
+        journal.close();
+
+        MoveJournal reopened = open();
+        List<MoveJournal.Entry> entries = reopened.pending();
+        long seq = reopened.append(move(1L, 7L, 9, 9, Move.MoveResult.HIT, null));
+
+        assertEquals(List.of(3L), entries.stream().map(MoveJournal.Entry::seq).toList());
+        assertEquals(4, seq);
+        assertEquals(List.of(3L, 4L), reopened.pending().stream().map(MoveJournal.Entry::seq).toList());
+        reopened.close();
+    }
+
+    // кольцо: после контрольных точек запись идёт по кругу без остановки, хвост читается после открытия?
+    @Test
+    void append_ShouldWrapAroundBehindCheckpoint() {
+        MoveJournal journal = open();
+        int capacity = capacity();
+        for (int i = 1; i <= capacity * 2 + 5; i++) {
+            assertEquals(i, journal.append(move(1L, 7L, i % 10, 0, Move.MoveResult.MISS, null)));
+            journal.checkpoint(i - 3);      // БД отстаёт на три хода
+        }
+        journal.close();
+
+        List<MoveJournal.Entry> entries = open().pending();
+
+        assertEquals(3, entries.size());
+        assertEquals(capacity * 2L + 5, entries.get(2).seq());
+    }
+
+    // при переполнении ходы считаются, а после продвижения контрольной точки запись продолжается?
+    @Test
+    void append_ShouldCountMovesWhenFull() {
+        MoveJournal journal = open();
+        int capacity = capacity();
+        for (int i = 0; i < capacity; i++) {
+            journal.append(move(1L, 7L, 0, 0, Move.MoveResult.MISS, null));
+        }
+
+        assertEquals(0, journal.append(move(1L, 7L, 0, 0, Move.MoveResult.MISS, null)));
+        assertEquals(1, journal.unjournaled());
+
+        journal.checkpoint(1);
+        assertEquals(capacity + 1L, journal.append(move(1L, 7L, 0, 0, Move.MoveResult.MISS, null)));
+        journal.close();
+    }
+
+    // после контрольной точки старые записи не возвращаются, новые продолжают seq?
+    @Test
+    void checkpoint_ShouldDropPersistedMoves() {
+        MoveJournal journal = open();
+        for (int i = 0; i < 3; i++) {
+            journal.append(move(1L, 7L, i, 0, Move.MoveResult.MISS, null));
+        }
+        journal.checkpoint(3);
+        long seq = journal.append(move(2L, 7L, 5, 5, Move.MoveResult.SUNK, null));
+        journal.close();
+
+        MoveJournal reopened = open();
+        List<MoveJournal.Entry> entries = reopened.pending();
+
+        assertEquals(4, seq);
+        assertEquals(1, entries.size());
+        assertEquals(2L, entries.get(0).gameId());
+        assertEquals(4, reopened.lastSeq());
+    }
+
+    // контрольная точка посреди журнала отсекает только записанное?
+    @Test
+    void checkpoint_ShouldKeepLaterMoves() {
+        MoveJournal journal = open();
+        for (int i = 0; i < 3; i++) {
+            journal.append(move(1L, 7L, i, 0, Move.MoveResult.MISS, null));
+        }
+        journal.checkpoint(2);
+
+        List<MoveJournal.Entry> entries = journal.pending();
+
+        assertEquals(1, entries.size());
+        assertEquals(3, entries.get(0).seq());
+        journal.close();
+    }
+
+    // отключённый журнал ничего не хранит?
+    @Test
+    void disabled_ShouldIgnoreMoves() {
+        MoveJournal journal = MoveJournal.disabled();
+
+        assertEquals(0, journal.append(move(1L, 7L, 0, 0, Move.MoveResult.MISS, null)));
+        assertTrue(journal.pending().isEmpty());
+    }
+
+    private int capacity() {
+        return ((1 << 20) - MoveJournal.HEADER_BYTES) / MoveJournal.RECORD_BYTES;
+    }
+
+    private MoveJournal open() {
+        return new MoveJournal(dir.resolve("moves.journal").toString(), 1);
+    }
+
+    private Move move(Long gameId, Long playerId, int x, int y, Move.MoveResult result, LocalDateTime createdAt) {
+        GameSession game = new GameSession();
+        game.setId(gameId);
+        User player = new User();
+        player.setId(playerId);
+        Move move = new Move();
+        move.setGame(game);
+        move.setPlayer(player);
+        move.setX(x);
+        move.setY(y);
+        move.setResult(result);
+        move.setCreatedAt(createdAt);
+        return move;
+    }
+}
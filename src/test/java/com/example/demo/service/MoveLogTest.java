@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Move;
+import com.example.demo.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveLogTest {
+
+    // журнал растёт за пределы начальной ёмкости, порядок ходов сохраняется?
+    @Test
+    void append_ShouldKeepOrderWhenGrowing() {
+        MoveLog log = new MoveLog();
+        Move[] moves = new Move[40];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = new Move();
+            moves[i].setX(i % 10);
+            moves[i].setY(i / 10);
+            log.append(moves[i], MoveLog.PLAYER1);
+        }
+
+        assertEquals(40, log.size());
+        assertSame(moves[39], log.last());
+        assertEquals(List.of(moves), log.snapshot());
+    }
+
+    // снимок не видит ходов, добавленных после него, и не изменяется снаружи?
+    @Test
+    void snapshot_ShouldBeStableAndReadOnly() {
+        MoveLog log = MoveLog.of(List.of(new Move()), 1L);
+
+        List<Move> snapshot = log.snapshot();
+        log.append(new Move(), MoveLog.PLAYER2);
+
+        assertEquals(1, snapshot.size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new Move()));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(1));
+        assertNull(new MoveLog().last());
+    }
+
+    // ходы из БД раскладываются по игрокам, очередь переходит после промаха?
+    @Test
+    void of_ShouldRestoreMasksAndTurn() {
+        User first = new User();
+        first.setId(1L);
+        User second = new User();
+        second.setId(2L);
+
+        MoveLog log = MoveLog.of(List.of(
+                move(first, 1, 0, Move.MoveResult.MISS),
+                move(second, 2, 0, Move.MoveResult.HIT)), 1L);
+
+        assertTrue(log.isAttacked(MoveLog.PLAYER1, 1));
+        assertFalse(log.isAttacked(MoveLog.PLAYER1, 2));
+        assertTrue(log.isAttacked(MoveLog.PLAYER2, 2));
+        assertEquals(MoveLog.PLAYER2, log.toMove());
+
+        log.append(move(second, 9, 9, Move.MoveResult.MISS), MoveLog.PLAYER2);
+        assertTrue(log.isAttacked(MoveLog.PLAYER2, 99));
+        assertEquals(MoveLog.PLAYER1, log.toMove());
+    }
+
+    private static Move move(User player, int x, int y, Move.MoveResult result) {
+        Move move = new Move();
+        move.setPlayer(player);
+        move.setX(x);
+        move.setY(y);
+        move.setResult(result);
+        return move;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.model.GameSession;
+import com.example.demo.model.Move;
+import com.example.demo.model.MoveKey;
+import com.example.demo.model.User;
+import com.example.demo.repository.MoveRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MoveWriteBehindTest {
+
+    @Mock
+    private MoveRepository moveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MoveWriteBehind writeBehind;
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        writeBehind = new MoveWriteBehind(moveRepository, transactionManager, MoveJournal.disabled(), 3);
+        lenient().when(moveRepository.saveAll(anyList())).thenAnswer(inv -> {
+            batches.add(((List<?>) inv.getArgument(0)).size());
+            return inv.getArgument(0);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    // ходы пишутся пакетами не больше заданного размера, после flush очередь пуста?
+    @Test
+    void flush_ShouldWriteInBatches() {
+        for (int i = 0; i < 7; i++) {
+            writeBehind.enqueue(new Move());
+        }
+
+        writeBehind.flush();
+
+        assertEquals(0, writeBehind.pending());
+        assertEquals(7, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.stream().allMatch(size -> size <= 3), "Пакеты: " + batches);
+    }
+
+    // без заполнения пакета ничего не пишется до сброса по таймеру?
+    @Test
+    void enqueue_ShouldWaitForTimerBelowBatchSize() {
+        writeBehind.enqueue(new Move());
+        writeBehind.enqueue(new Move());
+
+        assertEquals(2, writeBehind.pending());
+        verifyNoInteractions(moveRepository);
+
+        writeBehind.requestFlush();
+        writeBehind.flush();
+        assertEquals(List.of(2), batches);
+    }
+
+    // уже записанные и повторные в пакете ходы отсеиваются по одной выборке ключей, без запроса на ход?
+    @Test
+    void flush_ShouldSkipStoredAndRepeatedMoves() {
+        GameSession game = new GameSession();
+        game.setId(1L);
+        User player = new User();
+        player.setId(7L);
+        when(moveRepository.findKeysByGameIdIn(anyCollection()))
+                .thenReturn(List.of(new MoveKey(1L, 7L, 0, 0)));
+        List<Move> written = new ArrayList<>();
+        when(moveRepository.saveAll(anyList())).thenAnswer(inv -> {
+            written.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        writeBehind.enqueue(move(game, player, 0, 0));      // уже в БД
+        Move fresh = move(game, player, 1, 0);
+        writeBehind.enqueue(fresh);
+        writeBehind.enqueue(move(game, player, 1, 0));      // повтор в пакете
+        writeBehind.flush();
+
+        assertEquals(List.of(fresh), written);
+        verify(moveRepository, times(1)).findKeysByGameIdIn(anyCollection());
+    }
+
+    private Move move(GameSession game, User player, int x, int y) {
+        Move move = new Move();
+        move.setGame(game);
+        move.setPlayer(player);
+        move.setX(x);
+        move.setY(y);
+        return move;
+    }
+
+    // при ошибке пакета ходы пишутся по одному, плохой ход не теряет остальные?
+    @Test
+    void flush_ShouldFallBackToSingleSaves_WhenBatchFails() {
+        List<Move> saved = new ArrayList<>();
+        Move bad = new Move();
+        doThrow(new IllegalStateException("дубликат")).when(moveRepository).saveAll(anyList());
+        when(moveRepository.save(any(Move.class))).thenAnswer(inv -> {
+            Move move = inv.getArgument(0);
+            if (move == bad) {
+                throw new IllegalStateException("дубликат");
+            }
+            saved.add(move);
+            return move;
+        });
+        Move good = new Move();
+        good.setId(5L);     // id от откатившейся вставки
+
+        writeBehind.enqueue(good);
+        writeBehind.enqueue(bad);
+        writeBehind.flush();
+
+        assertEquals(List.of(good), saved);
+        assertNull(good.getId());
+    }
+
+    // ход, который записать нельзя, отбрасывается, а контрольная точка журнала идёт дальше?
+    @Test
+    void flush_ShouldDropPermanentlyFailingMoveAndAdvanceCheckpoint(@TempDir Path dir) {
+        MoveJournal journal = new MoveJournal(dir.resolve("moves.journal").toString(), 1);
+        MoveWriteBehind journaled = new MoveWriteBehind(moveRepository, transactionManager, journal, 3);
+        Move orphan = new Move();
+        doThrow(new DataIntegrityViolationException("нет игры")).when(moveRepository).saveAll(anyList());
+        when(moveRepository.save(any(Move.class))).thenAnswer(inv -> {
+            if (inv.getArgument(0) == orphan) {
+                throw new DataIntegrityViolationException("нет игры");
+            }
+            return inv.getArgument(0);
+        });
+
+        journaled.enqueue(orphan);
+        journaled.enqueue(new Move());
+        journaled.flush();
+        journaled.shutdown();
+
+        assertEquals(1, journaled.dropped());
+        assertEquals(0, journaled.pending());
+        assertTrue(journal.pending().isEmpty());
+        journal.close();
+    }
+
+    // при сбое БД ход возвращается в очередь и держит журнал, а после записи точка сдвигается?
+    @Test
+    void flush_ShouldRetryMoveAfterTransientFailure(@TempDir Path dir) {
+        MoveJournal journal = new MoveJournal(dir.resolve("moves.journal").toString(), 1);
+        MoveWriteBehind journaled = new MoveWriteBehind(moveRepository, transactionManager, journal, 3);
+        doThrow(new TransientDataAccessResourceException("нет соединения")).when(moveRepository).saveAll(anyList());
+        when(moveRepository.save(any(Move.class)))
+                .thenThrow(new TransientDataAccessResourceException("нет соединения"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        journaled.enqueue(new Move());
+        journaled.flush();
+
+        assertEquals(1, journaled.pending());
+        assertEquals(1, journal.pending().size());
+
+        journaled.flush();
+        journaled.shutdown();
+
+        assertEquals(0, journaled.pending());
+        assertEquals(0, journaled.dropped());
+        assertTrue(journal.pending().isEmpty());
+        journal.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserCacheService userCacheService;
+
+    private User ai;
+
+    @BeforeEach
+    void setUp() {
+        userCacheService = new UserCacheService(userRepository,
+                Caffeine.newBuilder().build(), Caffeine.newBuilder().build());
+        ai = new User();
+        ai.setId(2L);
+        ai.setName(UserCacheService.AI_PLAYER_NAME);
+    }
+
+    // повторный поиск по id не идёт в БД, а отсутствующий пользователь не запоминается?
+    @Test
+    void findById_ShouldReadThroughOnce() {
+        User user = new User();
+        user.setId(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertSame(user, userCacheService.findById(1L).orElseThrow());
+        assertSame(user, userCacheService.findById(1L).orElseThrow());
+        assertTrue(userCacheService.findById(3L).isEmpty());
+        assertTrue(userCacheService.findById(3L).isEmpty());
+
+        verify(userRepository, times(1)).findById(1L);
+        verify(userRepository, times(2)).findById(3L);
+    }
+
+    // ИИ-игрок найден при старте и дальше берётся из памяти?
+    @Test
+    void getAiPlayer_ShouldBeResolvedOnceAtStartup() {
+        when(userRepository.findByName(UserCacheService.AI_PLAYER_NAME)).thenReturn(Optional.of(ai));
+
+        userCacheService.resolveAiPlayer();
+
+        assertSame(ai, userCacheService.getAiPlayer());
+        assertSame(ai, userCacheService.getAiPlayer());
+        verify(userRepository, times(1)).findByName(UserCacheService.AI_PLAYER_NAME);
+    }
+
+    // после создания пользователя записи сбрасываются и читаются из БД заново?
+    @Test
+    void invalidate_ShouldDropEntriesByIdAndName() {
+        when(userRepository.findByName(UserCacheService.AI_PLAYER_NAME)).thenReturn(Optional.of(ai));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(ai));
+        userCacheService.getAiPlayer();
+        userCacheService.findById(2L);
+
+        userCacheService.invalidate(ai);
+        userCacheService.getAiPlayer();
+        userCacheService.findById(2L);
+
+        verify(userRepository, times(2)).findByName(UserCacheService.AI_PLAYER_NAME);
+        verify(userRepository, times(2)).findById(2L);
+    }
+}